@@ -0,0 +1,123 @@
+package com.example.SpringBasicAuth.benchmarks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import com.example.SpringBasicAuth.security.CachingJwtAuthenticationConverter;
+import com.example.SpringBasicAuth.security.CachingJwtDecoder;
+import com.example.SpringBasicAuth.security.JwtKeyStore;
+import com.example.SpringBasicAuth.security.JwtProvider;
+import com.example.SpringBasicAuth.security.RoleCodeAuthoritiesConverter;
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserPrincipal;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Token minting at login, and the work a bearer request does before reaching
+ * the controller: decoding (signature check and claim validation) plus
+ * converting the claims into an Authentication, with and without the
+ * application's caches.
+ * <p>
+ * compactClaims=false, the default, puts every role in "authorities"; true puts
+ * the well-known roles in "rc". Both sign with the precomputed header, see
+ * JwtSigningBenchmark for NimbusJwtEncoder. createToken is the token part of a
+ * login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({ "RS256", "ES256", "HS256" })
+    public String algorithm;
+
+    @Param({ "false", "true" })
+    public boolean compactClaims;
+
+    private JwtProvider jwtProvider;
+
+    private Authentication authentication;
+
+    private String token;
+
+    private JwtDecoder decoder;
+
+    private JwtAuthenticationConverter converter;
+
+    private JwtDecoder cachingDecoder;
+
+    private CachingJwtAuthenticationConverter cachingConverter;
+
+    @Setup
+    public void setUp() {
+        JwtKeyStore keyStore = new JwtKeyStore(null, this.algorithm, Duration.ZERO, Duration.ofDays(1),
+                Clock.systemUTC());
+        this.jwtProvider = new JwtProvider(keyStore, ObservationRegistry.NOOP, Duration.ofHours(2),
+                this.compactClaims);
+
+        UserPrincipal principal = new UserPrincipal(new User(1, "john", "{bcrypt}hash", "admin user", true));
+        this.authentication = UsernamePasswordAuthenticationToken.authenticated(principal, null,
+                principal.getAuthorities());
+        this.token = this.jwtProvider.createToken(this.authentication);
+
+        // Same claim settings as SecurityConfiguration#jwtAuthenticationConverter.
+        JwtGrantedAuthoritiesConverter claimConverter = new JwtGrantedAuthoritiesConverter();
+        claimConverter.setAuthoritiesClaimName(JwtProvider.AUTHORITIES_CLAIM);
+        claimConverter.setAuthorityPrefix("");
+        Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter = new RoleCodeAuthoritiesConverter(
+                claimConverter);
+
+        this.decoder = keyStore.decoder();
+        this.converter = new JwtAuthenticationConverter();
+        this.converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+
+        this.cachingDecoder = new CachingJwtDecoder(this.decoder, 10_000);
+        this.cachingConverter = new CachingJwtAuthenticationConverter(authoritiesConverter, 10_000);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return this.jwtProvider.createToken(this.authentication);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken decodeAndConvert() {
+        return this.converter.convert(this.decoder.decode(this.token));
+    }
+
+    /**
+     * A client reusing its token, as the application handles it.
+     */
+    @Benchmark
+    public AbstractAuthenticationToken cachedDecodeAndConvert() {
+        return this.cachingConverter.convert(this.cachingDecoder.decode(this.token));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.SpringBasicAuth.benchmarks;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import com.example.SpringBasicAuth.security.JwtSigningKey;
+
+/**
+ * Sign and verify throughput for each supported security.jwt.algorithm, using
+ * the same encoder and decoder the application builds. Verification goes
+ * straight to Nimbus, without CachingJwtDecoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({ "RS256", "ES256", "HS256" })
+    public String algorithm;
+
+    private JwtEncoder encoder;
+
+    private JwtDecoder decoder;
+
+    private JwtEncoderParameters parameters;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtSigningKey key = JwtSigningKey.generate(this.algorithm);
+        this.encoder = key.encoder();
+        this.decoder = key.decoder();
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(2, ChronoUnit.HOURS))
+                .subject("john")
+                .claim("authorities", "ROLE_admin ROLE_user")
+                .build();
+        this.parameters = JwtEncoderParameters.from(JwsHeader.with(key.getAlgorithm()).build(), claims);
+        this.token = this.encoder.encode(this.parameters).getTokenValue();
+    }
+
+    @Benchmark
+    public String sign() {
+        return this.encoder.encode(this.parameters).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return this.decoder.decode(this.token);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.SpringBasicAuth.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.converter.UserDtoToUserConverter;
+import com.example.SpringBasicAuth.user.converter.UserToUserDtoConverter;
+import com.example.SpringBasicAuth.user.dto.UserDto;
+
+/**
+ * User to UserDto and back, as an update request does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserConverterBenchmark {
+
+    private final UserToUserDtoConverter userToUserDtoConverter = new UserToUserDtoConverter();
+
+    private final UserDtoToUserConverter userDtoToUserConverter = new UserDtoToUserConverter();
+
+    private final User user = new User(1, "john", "{bcrypt}hash", "admin user", true);
+
+    @Benchmark
+    public User roundTrip() {
+        UserDto userDto = this.userToUserDtoConverter.convert(this.user);
+        return this.userDtoToUserConverter.convert(userDto);
+    }
+
+}
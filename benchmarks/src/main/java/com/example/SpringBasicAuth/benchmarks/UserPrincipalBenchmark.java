@@ -0,0 +1,57 @@
+package com.example.SpringBasicAuth.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserPrincipal;
+
+/**
+ * getAuthorities on a loaded principal, and creating the principal (which
+ * parses the roles string) followed by getAuthorities, as a cache miss does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    @Param({ "user", "admin user", "admin user auditor support billing" })
+    public String roles;
+
+    private User user;
+
+    private UserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        this.user = new User(1, "john", "{bcrypt}hash", this.roles, true);
+        this.principal = new UserPrincipal(this.user);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return this.principal.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> newPrincipalGetAuthorities() {
+        return new UserPrincipal(this.user).getAuthorities();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.example.SpringBasicAuth.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.SpringBasicAuth.SpringBasicAuthApplication;
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserService;
+import com.example.SpringBasicAuth.user.dto.UserDto;
+
+/**
+ * UserService against the real application context on in-memory H2:
+ * loadUserByUsername as Basic Auth calls it on a user-cache miss, and reading
+ * one user as an entity versus as a UserDto projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        // The security configuration needs Spring MVC, so this is a servlet
+        // context, on a random port that nothing calls.
+        this.context = new SpringApplicationBuilder(SpringBasicAuthApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+                        "--server.port=0",
+                        "--security.jwt.key-dir=",
+                        // No collector to export traces to.
+                        "--management.tracing.enabled=false",
+                        // Seeding only; skip the hash cost calibration.
+                        "--security.password.cost=10");
+        this.userService = this.context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return this.userService.loadUserByUsername("john");
+    }
+
+    @Benchmark
+    public User findById() {
+        return this.userService.findById(1);
+    }
+
+    @Benchmark
+    public UserDto findDtoById() {
+        return this.userService.findDtoById(1);
+    }
+
+}
@@ -0,0 +1,27 @@
+#!/usr/bin/env sh
+# Runs the concurrency ramp against the application twice, once on Tomcat's
+# platform-thread pool and once on virtual threads, and writes one report per
+# mode to loadtest/target/ramp-<mode>.json (compare p99 and maxConcurrency).
+#
+# Build first: ./mvnw package -DskipTests && ./mvnw -f loadtest/pom.xml package
+set -e
+
+APP_JAR=${APP_JAR:-target/spring-basic-auth-0.0.1-SNAPSHOT-exec.jar}
+PORT=${PORT:-8080}
+
+for mode in platform virtual; do
+  if [ "$mode" = virtual ]; then virtual=true; else virtual=false; fi
+
+  java -jar "$APP_JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" \
+    --security.jwt.key-dir= --spring.h2.console.enabled=false --security.login-rate-limit.enabled=false &
+  app=$!
+  trap 'kill $app 2>/dev/null' EXIT
+
+  until curl -sf "http://localhost:$PORT/.well-known/jwks.json" >/dev/null; do sleep 1; done
+
+  java -jar loadtest/target/loadtest.jar ramp base-url="http://localhost:$PORT" label="$mode" \
+    out="loadtest/target/ramp-$mode.json" "$@"
+
+  kill "$app"
+  wait "$app" || true
+done
@@ -0,0 +1,100 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Thin wrapper around the JDK HttpClient for the user API.
+ */
+final class ApiClient {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+
+    private final String apiUrl;
+
+    private final Duration timeout;
+
+    ApiClient(String baseUrl, String apiPath, Duration timeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.apiUrl = baseUrl + apiPath;
+        this.timeout = timeout;
+    }
+
+    HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(this.apiUrl + path)).timeout(this.timeout);
+    }
+
+    HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return this.httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Creates a user as admin and returns its id.
+     */
+    int createUser(String adminToken, String username, String password) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(
+                Map.of("username", username, "password", password, "roles", "user", "enabled", true));
+        HttpResponse<String> response = this.send(this.request("/users")
+                .header("Authorization", bearer(adminToken))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Creating " + username + " failed with " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("id").asInt();
+    }
+
+    static String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Logs in with Basic auth and returns the bearer token.
+     */
+    String login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = this.send(this.loginRequest(username, password));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + username + " failed with " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    HttpRequest loginRequest(String username, String password) {
+        String credentials = Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        return this.request("/users/login")
+                .header("Authorization", "Basic " + credentials)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    static String bearer(String token) {
+        return "Bearer " + token;
+    }
+
+}
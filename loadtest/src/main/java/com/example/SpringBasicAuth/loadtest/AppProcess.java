@@ -0,0 +1,74 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application jar in its own JVM for the duration of a run, so a
+ * report always comes from a freshly booted, otherwise idle instance.
+ */
+final class AppProcess implements AutoCloseable {
+
+    private final Process process;
+
+    private AppProcess(Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Starts {@code java -jar appJar --server.port=<port> appArgs...} and waits
+     * until the JWKS endpoint answers. Arguments given as key=value become
+     * --key=value.
+     */
+    static AppProcess start(Path appJar, String baseUrl, List<String> appArgs, Path log, Duration timeout)
+            throws IOException, InterruptedException {
+        URI base = URI.create(baseUrl);
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", appJar.toString(),
+                "--server.port=" + base.getPort()));
+        appArgs.forEach(arg -> command.add(arg.startsWith("-") ? arg : "--" + arg));
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        AppProcess app = new AppProcess(process);
+
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest ready = HttpRequest.newBuilder(base.resolve("/.well-known/jwks.json")).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (httpClient.send(ready, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    System.out.println("Application started, log in " + log);
+                    return app;
+                }
+            } catch (IOException ex) {
+                // Not listening yet.
+            }
+            Thread.sleep(500);
+        }
+        app.close();
+        throw new IllegalStateException("Application did not start within " + timeout + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.process.destroy();
+        if (!this.process.waitFor(30, TimeUnit.SECONDS)) {
+            this.process.destroyForcibly();
+        }
+    }
+
+}
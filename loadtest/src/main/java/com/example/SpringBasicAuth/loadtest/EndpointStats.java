@@ -0,0 +1,78 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histogram (microseconds, up to one minute) and error count for one
+ * endpoint. Dropped requests were due but not sent because too many were in
+ * flight; skipped requests had no test data left (e.g. no user to delete).
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean success) {
+        this.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            this.errors.increment();
+        }
+    }
+
+    void drop() {
+        this.dropped.increment();
+    }
+
+    void skip() {
+        this.skipped.increment();
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    Histogram getHistogram() {
+        return this.histogram;
+    }
+
+    long getCount() {
+        return this.histogram.getTotalCount();
+    }
+
+    long getErrors() {
+        return this.errors.sum();
+    }
+
+    Summary summarize() {
+        return new Summary(this.name, this.getCount(), this.getErrors(), this.dropped.sum(), this.skipped.sum(),
+                millis(this.histogram.getValueAtPercentile(50)), millis(this.histogram.getValueAtPercentile(90)),
+                millis(this.histogram.getValueAtPercentile(99)), millis(this.histogram.getValueAtPercentile(99.9)),
+                millis(this.histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    record Summary(String endpoint, long count, long errors, long dropped, long skipped, double p50Ms, double p90Ms,
+            double p99Ms, double p999Ms, double maxMs) {
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Entry point: {@code java -jar loadtest.jar <command> [key=value ...]}.
+ * <p>
+ * Commands:
+ * <ul>
+ * <li>run - open-loop mixed workload at a fixed arrival rate, with p50, p90,
+ * p99 and p99.9 per endpoint (see MixedLoadTest). Options: rate (200/s),
+ * duration-seconds (60), warmup-seconds (10), max-in-flight (1000),
+ * delete-pool (5000), mix (see DEFAULT_MIX).</li>
+ * <li>ramp - closed-loop concurrency ramp, reports the maximum concurrency
+ * within the p99 SLO (see RampTest).</li>
+ * <li>compare - compares two run reports: baseline=, candidate=,
+ * max-regression (0.1). Exits with 1 if a p99 regressed more than that.</li>
+ * </ul>
+ * Common options: base-url (http://localhost:8080), api-path (/api/v1),
+ * timeout-seconds (10), label, out (report file, JSON). With app-jar the
+ * application is started for the run (app-args, space separated key=value
+ * properties, are passed on; its output goes to app-log) and stopped
+ * afterwards.
+ */
+public final class LoadTest {
+
+    static final String DEFAULT_MIX = "login:10,list:5,get:60,update:10,delete:5,reset:10";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: java -jar loadtest.jar run|ramp|compare [key=value ...]");
+            System.exit(2);
+        }
+        Map<String, String> options = parseOptions(Arrays.copyOfRange(args, 1, args.length));
+
+        if (args[0].equals("compare")) {
+            boolean regressed = ReportComparison.compare(Path.of(options.get("baseline")),
+                    Path.of(options.get("candidate")),
+                    Double.parseDouble(options.getOrDefault("max-regression", "0.1")));
+            System.exit(regressed ? 1 : 0);
+        }
+
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        ApiClient client = new ApiClient(baseUrl, options.getOrDefault("api-path", "/api/v1"),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-seconds", "10"))));
+
+        AppProcess app = null;
+        if (options.containsKey("app-jar")) {
+            List<String> appArgs = options.getOrDefault("app-args", "").isBlank() ? List.of()
+                    : List.of(options.get("app-args").trim().split("\\s+"));
+            app = AppProcess.start(Path.of(options.get("app-jar")), baseUrl, appArgs,
+                    Path.of(options.getOrDefault("app-log", "app.log")), Duration.ofMinutes(2));
+        }
+
+        Object report;
+        try {
+            report = switch (args[0]) {
+                case "run" -> new MixedLoadTest(client,
+                        MixedLoadTest.parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                        Double.parseDouble(options.getOrDefault("rate", "200")),
+                        Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "60"))),
+                        Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "10"))),
+                        Integer.parseInt(options.getOrDefault("max-in-flight", "1000")),
+                        Integer.parseInt(options.getOrDefault("delete-pool", "5000")))
+                        .run(options.getOrDefault("label", "run"));
+                case "ramp" -> new RampTest(client,
+                        Duration.ofSeconds(Long.parseLong(options.getOrDefault("step-seconds", "20"))),
+                        Double.parseDouble(options.getOrDefault("slo-p99-ms", "500")),
+                        Double.parseDouble(options.getOrDefault("max-error-rate", "0.01")))
+                        .run(options.getOrDefault("label", "ramp"),
+                                parseLevels(options.getOrDefault("levels", "25,50,100,200,400,800,1600")));
+                default -> throw new IllegalArgumentException("Unknown command " + args[0]);
+            };
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        if (report instanceof MixedLoadTest.Report mixed) {
+            printSummary(mixed);
+        }
+        String out = options.get("out");
+        if (out != null) {
+            Path file = Path.of(out);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            objectMapper.writeValue(file.toFile(), report);
+            System.out.println("Report written to " + file);
+        }
+    }
+
+    private static void printSummary(MixedLoadTest.Report report) {
+        System.out.printf("%s: %.1f req/s (target %.1f)%n", report.label(), report.achievedRate(),
+                report.targetRate());
+        System.out.printf("%-22s %8s %7s %7s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "dropped", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointStats.Summary endpoint : report.endpoints()) {
+            System.out.printf("%-22s %8d %7d %7d %9.2f %9.2f %9.2f %9.2f%n", endpoint.endpoint(), endpoint.count(),
+                    endpoint.errors(), endpoint.dropped(), endpoint.p50Ms(), endpoint.p99Ms(), endpoint.p999Ms(),
+                    endpoint.maxMs());
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static List<Integer> parseLevels(String levels) {
+        return Arrays.stream(levels.split(",")).map(String::trim).map(Integer::valueOf).toList();
+    }
+
+}
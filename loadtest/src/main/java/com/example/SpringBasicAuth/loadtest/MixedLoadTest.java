@@ -0,0 +1,318 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop mixed workload: requests are started at a fixed arrival rate
+ * whether or not earlier ones have finished, like independent clients would.
+ * Latency is measured from the moment a request was due, so a stalled server
+ * shows up in the percentiles instead of silently lowering the request rate
+ * (coordinated omission).
+ * <p>
+ * The operations and their weights come from the mix option. Test users for
+ * PUT, DELETE and /users/reset are created before the run, under a random
+ * prefix so runs do not collide.
+ */
+final class MixedLoadTest {
+
+    enum Operation {
+
+        LOGIN("POST /users/login"),
+        LIST("GET /users"),
+        GET("GET /users/{id}"),
+        UPDATE("PUT /users/{id}"),
+        DELETE("DELETE /users/{id}"),
+        RESET("POST /users/reset");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+    }
+
+    private static final int RESET_POOL_SIZE = 50;
+
+    private final ApiClient client;
+
+    private final Map<Operation, Integer> mix;
+
+    private final double rate;
+
+    private final Duration duration;
+
+    private final Duration warmup;
+
+    private final int maxInFlight;
+
+    private final int maxDeletePool;
+
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<Integer> deletableIds = new ConcurrentLinkedQueue<>();
+
+    private final List<ResetUser> resetUsers = new ArrayList<>();
+
+    private String token;
+
+    MixedLoadTest(ApiClient client, Map<Operation, Integer> mix, double rate, Duration duration, Duration warmup,
+            int maxInFlight, int maxDeletePool) {
+        this.client = client;
+        this.mix = mix;
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.maxInFlight = maxInFlight;
+        this.maxDeletePool = maxDeletePool;
+        for (Operation operation : Operation.values()) {
+            this.stats.put(operation, new EndpointStats(operation.endpoint));
+        }
+    }
+
+    /**
+     * Parses a mix like {@code login:10,get:50,update:10}.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.valueOf(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    Report run(String label) throws Exception {
+        this.token = this.client.login("john", "123456");
+        this.createTestUsers();
+
+        Instant startedAt = Instant.now();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / this.rate);
+        long start = System.nanoTime();
+        long measureFrom = start + this.warmup.toNanos();
+        long end = measureFrom + this.duration.toNanos();
+        long sent = 0;
+
+        for (long due = start; due < end; due += intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            if (this.dispatch(this.pick(), due, measured) && measured) {
+                sent++;
+            }
+        }
+        this.awaitInFlight(Duration.ofSeconds(30));
+
+        Map<String, Integer> mixByEndpoint = new LinkedHashMap<>();
+        this.mix.forEach((operation, weight) -> mixByEndpoint.put(operation.endpoint, weight));
+        List<EndpointStats.Summary> endpoints = this.mix.keySet().stream()
+                .map(operation -> this.stats.get(operation).summarize())
+                .toList();
+        return new Report(label, startedAt, this.rate, sent / (double) this.duration.toSeconds(),
+                this.duration.toSeconds(), this.warmup.toSeconds(), this.maxInFlight, mixByEndpoint, endpoints);
+    }
+
+    private void createTestUsers() throws InterruptedException {
+        String prefix = "lt-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        int totalWeight = this.mix.values().stream().mapToInt(Integer::intValue).sum();
+        double deleteShare = this.mix.getOrDefault(Operation.DELETE, 0) / (double) totalWeight;
+        int deletes = (int) Math.min(this.maxDeletePool,
+                Math.ceil(this.rate * (this.duration.toSeconds() + this.warmup.toSeconds()) * deleteShare * 1.1));
+        int resets = this.mix.containsKey(Operation.RESET) || this.mix.containsKey(Operation.UPDATE)
+                ? RESET_POOL_SIZE : 0;
+
+        // Every user costs a password hash on the server, so create them a few at a time.
+        Semaphore permits = new Semaphore(16);
+        List<Thread> threads = new ArrayList<>();
+        List<ResetUser> created = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < deletes + resets; i++) {
+            boolean forReset = i < resets;
+            String username = prefix + i;
+            permits.acquire();
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    int id = this.client.createUser(this.token, username, ResetUser.password(0));
+                    if (forReset) {
+                        created.add(new ResetUser(id, username));
+                    } else {
+                        this.deletableIds.add(id);
+                    }
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        this.resetUsers.addAll(created);
+        System.out.printf("Created %d users to delete and %d users to update/reset%n", this.deletableIds.size(),
+                this.resetUsers.size());
+    }
+
+    private Operation pick() {
+        int totalWeight = this.mix.values().stream().mapToInt(Integer::intValue).sum();
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : this.mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private boolean dispatch(Operation operation, long due, boolean measured) {
+        EndpointStats endpointStats = this.stats.get(operation);
+        if (this.inFlight.get() >= this.maxInFlight) {
+            if (measured) {
+                endpointStats.drop();
+            }
+            return false;
+        }
+
+        ResetUser resetUser = null;
+        HttpRequest request;
+        switch (operation) {
+            case LOGIN -> request = this.client.loginRequest("eric", "654321");
+            case LIST -> request = this.bearerRequest("/users").GET().build();
+            case GET -> request = this.bearerRequest("/users/" + ThreadLocalRandom.current().nextInt(1, 4))
+                    .GET().build();
+            case UPDATE -> {
+                ResetUser user = this.randomResetUser();
+                request = user == null ? null
+                        : this.bearerRequest("/users/" + user.id)
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(ApiClient.json(Map.of("id", user.id,
+                                        "username", user.username, "roles", "user", "enabled", true))))
+                                .build();
+            }
+            case DELETE -> {
+                Integer id = this.deletableIds.poll();
+                request = id == null ? null : this.bearerRequest("/users/" + id).DELETE().build();
+            }
+            case RESET -> {
+                resetUser = this.lockResetUser();
+                request = resetUser == null ? null
+                        : this.bearerRequest("/users/reset")
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(ApiClient.json(Map.of(
+                                        "username", resetUser.username,
+                                        "oldPassword", ResetUser.password(resetUser.generation),
+                                        "newPassword", ResetUser.password(resetUser.generation + 1)))))
+                                .build();
+            }
+            default -> throw new IllegalStateException();
+        }
+        if (request == null) {
+            if (measured) {
+                endpointStats.skip();
+            }
+            return false;
+        }
+
+        ResetUser lockedUser = resetUser;
+        this.inFlight.incrementAndGet();
+        this.client.sendAsync(request).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - due;
+            boolean success = failure == null && response.statusCode() < 400;
+            if (measured) {
+                endpointStats.record(latency, success);
+            }
+            if (lockedUser != null) {
+                lockedUser.unlock(success);
+            }
+            this.inFlight.decrementAndGet();
+        });
+        return true;
+    }
+
+    private HttpRequest.Builder bearerRequest(String path) {
+        return this.client.request(path).header("Authorization", ApiClient.bearer(this.token));
+    }
+
+    private ResetUser randomResetUser() {
+        return this.resetUsers.isEmpty() ? null
+                : this.resetUsers.get(ThreadLocalRandom.current().nextInt(this.resetUsers.size()));
+    }
+
+    private ResetUser lockResetUser() {
+        if (this.resetUsers.isEmpty()) {
+            return null;
+        }
+        int offset = ThreadLocalRandom.current().nextInt(this.resetUsers.size());
+        for (int i = 0; i < this.resetUsers.size(); i++) {
+            ResetUser user = this.resetUsers.get((offset + i) % this.resetUsers.size());
+            if (user.busy.compareAndSet(false, true)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    private void awaitInFlight(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (this.inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A user whose password is changed by /users/reset; one reset at a time, so
+     * the old password is always known.
+     */
+    private static final class ResetUser {
+
+        final int id;
+
+        final String username;
+
+        final AtomicBoolean busy = new AtomicBoolean();
+
+        volatile int generation;
+
+        ResetUser(int id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+
+        static String password(int generation) {
+            return "load-test-" + generation;
+        }
+
+        void unlock(boolean changed) {
+            if (changed) {
+                this.generation++;
+            }
+            this.busy.set(false);
+        }
+
+    }
+
+    record Report(String label, Instant startedAt, double targetRate, double achievedRate, long durationSeconds,
+            long warmupSeconds, int maxInFlight, Map<String, Integer> mix, List<EndpointStats.Summary> endpoints) {
+    }
+
+}
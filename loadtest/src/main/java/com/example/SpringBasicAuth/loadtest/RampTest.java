@@ -0,0 +1,105 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Closed-loop ramp: each step runs N concurrent users for a fixed time, every
+ * user sending its next request as soon as the previous one finished. Steps
+ * grow until p99 exceeds the SLO or too many requests fail. The last step that
+ * met both is the maximum concurrency.
+ * <p>
+ * Each user mixes 90% bearer GET /users/{id} (database bound) with 10% Basic
+ * login (bcrypt bound).
+ */
+final class RampTest {
+
+    private final ApiClient client;
+
+    private final Duration stepDuration;
+
+    private final double sloP99Ms;
+
+    private final double maxErrorRate;
+
+    RampTest(ApiClient client, Duration stepDuration, double sloP99Ms, double maxErrorRate) {
+        this.client = client;
+        this.stepDuration = stepDuration;
+        this.sloP99Ms = sloP99Ms;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    Report run(String label, List<Integer> levels) throws Exception {
+        String token = this.client.login("john", "123456");
+        List<Step> steps = new ArrayList<>();
+        int maxConcurrency = 0;
+
+        for (int concurrency : levels) {
+            Step step = this.runStep(concurrency, token);
+            steps.add(step);
+            System.out.printf("%-8s users=%-5d rps=%-9.1f p99=%-9.2fms errors=%.2f%%%n", label, concurrency,
+                    step.throughput(), step.p99Ms(), step.errorRate() * 100);
+            if (step.p99Ms() > this.sloP99Ms || step.errorRate() > this.maxErrorRate) {
+                break;
+            }
+            maxConcurrency = concurrency;
+        }
+        return new Report(label, this.sloP99Ms, this.maxErrorRate, maxConcurrency, steps);
+    }
+
+    private Step runStep(int concurrency, String token) throws InterruptedException {
+        EndpointStats getUser = new EndpointStats("GET /users/{id}");
+        EndpointStats login = new EndpointStats("POST /users/login");
+        long deadline = System.nanoTime() + this.stepDuration.toNanos();
+
+        List<Thread> users = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            users.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                        this.call(login, this.client.loginRequest("eric", "654321"));
+                    } else {
+                        int id = ThreadLocalRandom.current().nextInt(1, 4);
+                        this.call(getUser, this.client.request("/users/" + id)
+                                .header("Authorization", ApiClient.bearer(token)).GET().build());
+                    }
+                }
+            }));
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+
+        Histogram all = getUser.getHistogram().copy();
+        all.add(login.getHistogram());
+        long count = all.getTotalCount();
+        long errors = getUser.getErrors() + login.getErrors();
+        return new Step(concurrency, count / (double) this.stepDuration.toSeconds(),
+                all.getValueAtPercentile(99) / 1000.0, count == 0 ? 1.0 : errors / (double) count,
+                List.of(getUser.summarize(), login.summarize()));
+    }
+
+    private void call(EndpointStats stats, HttpRequest request) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = this.client.send(request).statusCode() < 400;
+        } catch (Exception ex) {
+            success = false;
+        }
+        stats.record(System.nanoTime() - start, success);
+    }
+
+    record Step(int concurrency, double throughput, double p99Ms, double errorRate,
+            List<EndpointStats.Summary> endpoints) {
+    }
+
+    record Report(String label, double sloP99Ms, double maxErrorRate, int maxConcurrency, List<Step> steps) {
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.SpringBasicAuth.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the per-endpoint percentiles of two mixed-run reports, e.g. from
+ * the previous and the current build.
+ */
+final class ReportComparison {
+
+    private static final String[] PERCENTILES = { "p50Ms", "p99Ms", "p999Ms" };
+
+    private ReportComparison() {
+    }
+
+    /**
+     * Prints the comparison and returns whether any endpoint's p99 grew by more
+     * than maxRegression (0.1 = 10%).
+     */
+    static boolean compare(Path baseline, Path candidate, double maxRegression) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> before = byEndpoint(objectMapper.readTree(baseline.toFile()));
+        Map<String, JsonNode> after = byEndpoint(objectMapper.readTree(candidate.toFile()));
+
+        boolean regressed = false;
+        System.out.printf("%-22s %-8s %10s %10s %9s%n", "endpoint", "", "baseline", "candidate", "change");
+        for (Map.Entry<String, JsonNode> entry : after.entrySet()) {
+            JsonNode old = before.get(entry.getKey());
+            if (old == null) {
+                System.out.printf("%-22s (not in baseline)%n", entry.getKey());
+                continue;
+            }
+            for (String percentile : PERCENTILES) {
+                double was = old.get(percentile).asDouble();
+                double now = entry.getValue().get(percentile).asDouble();
+                double change = was == 0 ? 0 : (now - was) / was;
+                System.out.printf("%-22s %-8s %10.2f %10.2f %+8.1f%%%n", entry.getKey(), percentile, was, now,
+                        change * 100);
+                if (percentile.equals("p99Ms") && change > maxRegression) {
+                    regressed = true;
+                }
+            }
+            long errorsBefore = old.get("errors").asLong();
+            long errorsAfter = entry.getValue().get("errors").asLong();
+            if (errorsBefore != errorsAfter) {
+                System.out.printf("%-22s %-8s %10d %10d%n", entry.getKey(), "errors", errorsBefore, errorsAfter);
+            }
+        }
+        return regressed;
+    }
+
+    private static Map<String, JsonNode> byEndpoint(JsonNode report) {
+        Map<String, JsonNode> endpoints = new LinkedHashMap<>();
+        report.get("endpoints").forEach(endpoint -> endpoints.put(endpoint.get("endpoint").asText(), endpoint));
+        return endpoints;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.example.SpringBasicAuth.reactive.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.SpringBasicAuth.reactive.user.UserPrincipal;
+import com.example.SpringBasicAuth.reactive.user.dto.UserDto;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("${api.endpoint.base-url}/users")
+public class AuthController {
+
+    private final JwtProvider jwtProvider;
+
+    public AuthController(JwtProvider jwtProvider) {
+        this.jwtProvider = jwtProvider;
+    }
+
+    /**
+     * Only requests that passed Basic Auth get here, see SecurityConfiguration.
+     * Signing is quick enough to run on the event loop.
+     *
+     * @return User information and JSON web token
+     */
+    @PostMapping("/login")
+    public Mono<Map<String, Object>> getLoginInfo(Authentication authentication) {
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+        Map<String, Object> loginResultMap = new HashMap<>();
+        loginResultMap.put("userInfo", UserDto.from(principal.getUser()));
+        loginResultMap.put("token", this.jwtProvider.createToken(authentication));
+        return Mono.just(loginResultMap);
+    }
+
+}
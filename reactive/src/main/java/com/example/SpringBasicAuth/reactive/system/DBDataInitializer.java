@@ -0,0 +1,36 @@
+package com.example.SpringBasicAuth.reactive.system;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import com.example.SpringBasicAuth.reactive.user.User;
+import com.example.SpringBasicAuth.reactive.user.UserService;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates the demo users, skipping users that already exist.
+ */
+@Component
+public class DBDataInitializer implements CommandLineRunner {
+
+    private final UserService userService;
+
+    public DBDataInitializer(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Flux.just(
+                new User(null, "john", "123456", "admin user", true),
+                new User(null, "eric", "654321", "user", true),
+                new User(null, "tom", "qwerty", "user", false))
+                // One at a time, so ids follow this order.
+                .concatMap(user -> this.userService.usernameExists(user.getUsername())
+                        .filter(exists -> !exists)
+                        .flatMap(missing -> this.userService.save(user)))
+                .blockLast();
+    }
+
+}
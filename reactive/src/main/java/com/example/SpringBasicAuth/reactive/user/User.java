@@ -0,0 +1,83 @@
+package com.example.SpringBasicAuth.reactive.user;
+
+import java.util.Locale;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("users")
+public class User {
+
+    @Id
+    private Integer id;
+
+    private String username;
+
+    // Lower-cased copy of username, used for case-insensitive lookups and the
+    // unique index. Set by setUsername, never exposed.
+    private String usernameKey;
+
+    private String password;
+    private String roles;
+    private boolean enabled;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+        this.usernameKey = toUsernameKey(username);
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getRoles() {
+        return roles;
+    }
+
+    public void setRoles(String roles) {
+        this.roles = roles;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public User(Integer id, String username, String password, String roles, boolean enabled) {
+        this.id = id;
+        this.setUsername(username);
+        this.password = password;
+        this.roles = roles;
+        this.enabled = enabled;
+    }
+
+    public User() {
+    }
+
+    /**
+     * The normalized form usernames are compared in.
+     */
+    public static String toUsernameKey(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.example.SpringBasicAuth.reactive.user;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.SpringBasicAuth.reactive.system.exception.ObjectNotFoundException;
+import com.example.SpringBasicAuth.reactive.user.dto.ChangePasswordRequest;
+import com.example.SpringBasicAuth.reactive.user.dto.UserDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same contract as the servlet application's UserController (without the
+ * paging and bulk extensions).
+ */
+@RestController
+@RequestMapping("${api.endpoint.base-url}/users")
+public class UserController {
+
+    private final UserService userService;
+
+    private final UserRepository userRepository;
+
+    public UserController(UserService userService, UserRepository userRepository) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+    }
+
+    @GetMapping
+    public Flux<UserDto> findAllUsers() {
+        return this.userService.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserDto> findUserById(@PathVariable Integer id) {
+        return this.userService.findById(id);
+    }
+
+    @PostMapping
+    public Mono<UserDto> addUser(@RequestBody User newUser) {
+        return this.userService.save(newUser).map(UserDto::from);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<UserDto> updateUser(@PathVariable Integer id, @RequestBody UserDto userDto) {
+        return this.userService.update(id, userDto).map(UserDto::from);
+    }
+
+    @PostMapping("/reset")
+    public Mono<ResponseEntity<String>> changePassword(@RequestBody ChangePasswordRequest changePasswordRequest) {
+        return this.userRepository.findByUsername(changePasswordRequest.username())
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("user", changePasswordRequest.username())))
+                .flatMap(user -> this.userService.oldPasswordIsValid(user, changePasswordRequest.oldPassword())
+                        .flatMap(valid -> valid
+                                ? this.userService.updatePassword(user, changePasswordRequest.newPassword())
+                                        .thenReturn(new ResponseEntity<>("Password changed successfully",
+                                                HttpStatus.OK))
+                                : Mono.just(new ResponseEntity<>("Incorrect old Password",
+                                        HttpStatus.BAD_REQUEST))));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteUser(@PathVariable Integer id) {
+        return this.userService.delete(id);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.example.SpringBasicAuth.reactive.user;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+// Principal refers to a logged in user
+public class UserPrincipal implements UserDetails {
+
+    private final User user;
+
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(User user) {
+        this.user = user;
+        // Roles are stored space-delimited, e.g. "admin user".
+        String roles = user.getRoles() == null ? "" : user.getRoles().trim();
+        this.authorities = roles.isEmpty() ? List.of()
+                : Arrays.stream(roles.split("\\s+"))
+                        .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList();
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return this.authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return this.user.getPassword();
+    }
+
+    @Override
+    public String getUsername() {
+        return this.user.getUsername();
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.user.isEnabled();
+    }
+
+}
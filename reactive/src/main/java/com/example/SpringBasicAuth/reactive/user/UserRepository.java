@@ -0,0 +1,22 @@
+package com.example.SpringBasicAuth.reactive.user;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UserRepository extends ReactiveCrudRepository<User, Integer> {
+
+    Flux<User> findAllByOrderById();
+
+    Mono<User> findByUsernameKey(String usernameKey);
+
+    Mono<Boolean> existsByUsernameKey(String usernameKey);
+
+    Mono<Boolean> existsByUsernameKeyAndIdNot(String usernameKey, Integer id);
+
+    default Mono<User> findByUsername(String username) {
+        return this.findByUsernameKey(User.toUsernameKey(username));
+    }
+
+}
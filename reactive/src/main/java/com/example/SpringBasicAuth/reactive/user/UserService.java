@@ -0,0 +1,121 @@
+package com.example.SpringBasicAuth.reactive.user;
+
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.SpringBasicAuth.reactive.system.exception.DuplicateUsernameException;
+import com.example.SpringBasicAuth.reactive.system.exception.ObjectNotFoundException;
+import com.example.SpringBasicAuth.reactive.user.dto.UserDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Password hashing is CPU bound and blocking, so it runs on the bounded
+ * password-hashing scheduler, never on an event-loop thread.
+ * <p>
+ * Reads are single queries and start no transaction of their own: r2dbc-h2
+ * logs a warning for every transaction it begins, because it cannot apply
+ * Spring's read-only flag, and that would include every Basic Auth lookup.
+ * Writes still run in a transaction and log it once each.
+ */
+@Service
+@Transactional
+public class UserService implements ReactiveUserDetailsService {
+
+    private final UserRepository userRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final Scheduler passwordHashingScheduler;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+            Scheduler passwordHashingScheduler) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Flux<UserDto> findAll() {
+        return this.userRepository.findAllByOrderById().map(UserDto::from);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Mono<UserDto> findById(Integer id) {
+        return this.userRepository.findById(id)
+                .map(UserDto::from)
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("user", id)));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Mono<Boolean> usernameExists(String username) {
+        return this.userRepository.existsByUsernameKey(User.toUsernameKey(username));
+    }
+
+    public Mono<User> save(User newUser) {
+        return this.usernameExists(newUser.getUsername())
+                .flatMap(exists -> exists
+                        ? Mono.error(new DuplicateUsernameException(newUser.getUsername()))
+                        : this.encode(newUser.getPassword()))
+                .flatMap(encodedPassword -> {
+                    newUser.setId(null);
+                    newUser.setPassword(encodedPassword);
+                    return this.userRepository.save(newUser);
+                });
+    }
+
+    /**
+     * We are not using this update to change user password.
+     */
+    public Mono<User> update(Integer id, UserDto update) {
+        return this.userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("user", id)))
+                .flatMap(oldUser -> this.userRepository
+                        .existsByUsernameKeyAndIdNot(User.toUsernameKey(update.username()), id)
+                        .flatMap(taken -> {
+                            if (taken) {
+                                return Mono.error(new DuplicateUsernameException(update.username()));
+                            }
+                            oldUser.setUsername(update.username());
+                            oldUser.setEnabled(update.enabled());
+                            oldUser.setRoles(update.roles());
+                            return this.userRepository.save(oldUser);
+                        }));
+    }
+
+    public Mono<User> updatePassword(User user, String newPassword) {
+        return this.encode(newPassword).flatMap(encodedPassword -> {
+            user.setPassword(encodedPassword);
+            return this.userRepository.save(user);
+        });
+    }
+
+    public Mono<Boolean> oldPasswordIsValid(User user, String oldPassword) {
+        return Mono.fromCallable(() -> this.passwordEncoder.matches(oldPassword, user.getPassword()))
+                .subscribeOn(this.passwordHashingScheduler);
+    }
+
+    public Mono<Void> delete(Integer id) {
+        return this.userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("user", id)))
+                .flatMap(this.userRepository::delete);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Mono<UserDetails> findByUsername(String username) {
+        return this.userRepository.findByUsername(username).map(UserPrincipal::new);
+    }
+
+    private Mono<String> encode(String rawPassword) {
+        return Mono.fromCallable(() -> this.passwordEncoder.encode(rawPassword))
+                .subscribeOn(this.passwordHashingScheduler);
+    }
+
+}
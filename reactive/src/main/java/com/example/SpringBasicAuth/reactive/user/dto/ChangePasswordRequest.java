@@ -0,0 +1,7 @@
+package com.example.SpringBasicAuth.reactive.user.dto;
+
+public record ChangePasswordRequest(
+        String username,
+        String oldPassword,
+        String newPassword) {
+}
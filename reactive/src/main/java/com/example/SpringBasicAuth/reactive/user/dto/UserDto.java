@@ -0,0 +1,15 @@
+package com.example.SpringBasicAuth.reactive.user.dto;
+
+import com.example.SpringBasicAuth.reactive.user.User;
+
+public record UserDto(
+        Integer id,
+        String username,
+        String roles,
+        boolean enabled) {
+
+    public static UserDto from(User user) {
+        return new UserDto(user.getId(), user.getUsername(), user.getRoles(), user.isEnabled());
+    }
+
+}
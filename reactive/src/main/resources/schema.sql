@@ -0,0 +1,13 @@
+-- Same table as db/migration in the servlet application, with an identity id
+-- because R2DBC inserts without reserving ids first.
+create table if not exists users (
+    id integer generated by default as identity,
+    username varchar(255) not null,
+    username_key varchar(255) not null,
+    password varchar(255),
+    roles varchar(255),
+    enabled boolean not null,
+    primary key (id)
+);
+
+create unique index if not exists ux_users_username_key on users (username_key);
@@ -0,0 +1,73 @@
+package com.example.SpringBasicAuth.reactive.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.scheduler.Scheduler;
+
+@SpringBootTest(properties = {
+        "security.password-hashing.pool-size=1",
+        "security.password-hashing.queue-capacity=1" })
+@AutoConfigureWebTestClient
+class PasswordHashingSchedulerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    Scheduler passwordHashingScheduler;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    CountDownLatch gate = new CountDownLatch(1);
+
+    @AfterEach
+    void openGate() {
+        this.gate.countDown();
+    }
+
+    @Test
+    void testLoginIsRejectedWith503WhenSchedulerIsFull() throws Exception {
+        // One task running and one queued fill a scheduler of one thread with a queue of one.
+        CountDownLatch started = new CountDownLatch(1);
+        this.passwordHashingScheduler.schedule(() -> {
+            started.countDown();
+            this.await(this.gate);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        this.passwordHashingScheduler.schedule(() -> this.await(this.gate));
+
+        this.webTestClient.post().uri(this.baseUrl + "/users/login")
+                .headers(headers -> headers.setBasicAuth("john", "123456"))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+
+        this.gate.countDown();
+        this.webTestClient.post().uri(this.baseUrl + "/users/login")
+                .headers(headers -> headers.setBasicAuth("john", "123456"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
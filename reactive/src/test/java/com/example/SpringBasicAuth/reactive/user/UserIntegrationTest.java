@@ -0,0 +1,125 @@
+package com.example.SpringBasicAuth.reactive.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.SpringBasicAuth.reactive.user.dto.UserDto;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class UserIntegrationTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    String token;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Object> loginInfo = this.webTestClient.post().uri(this.baseUrl + "/users/login")
+                .headers(headers -> headers.setBasicAuth("john", "123456"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<Map<String, Object>>() {
+                })
+                .returnResult().getResponseBody();
+        this.token = (String) loginInfo.get("token");
+    }
+
+    @Test
+    @DisplayName("Login fails with a wrong password")
+    void testLoginWithWrongPassword() {
+        this.webTestClient.post().uri(this.baseUrl + "/users/login")
+                .headers(headers -> headers.setBasicAuth("john", "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @DisplayName("findUserById (GET)")
+    void testFindUserById() {
+        this.webTestClient.get().uri(this.baseUrl + "/users/1")
+                .headers(headers -> headers.setBearerAuth(this.token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("john")
+                .jsonPath("$.roles").isEqualTo("admin user");
+    }
+
+    @Test
+    @DisplayName("findUserById (GET) with a missing id")
+    void testFindUserByIdNotFound() {
+        this.webTestClient.get().uri(this.baseUrl + "/users/999")
+                .headers(headers -> headers.setBearerAuth(this.token))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("addUser (POST) then log in as the new user")
+    void testAddUser() {
+        User payload = new User(null, "Bobby", "greenbay", "user", true);
+
+        this.webTestClient.post().uri(this.baseUrl + "/users")
+                .headers(headers -> headers.setBearerAuth(this.token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(payload)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserDto.class)
+                .value(user -> assertThat(user.username()).isEqualTo("Bobby"));
+
+        this.webTestClient.post().uri(this.baseUrl + "/users/login")
+                .headers(headers -> headers.setBasicAuth("bobby", "greenbay"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("addUser (POST) with a taken username")
+    void testAddUserWithDuplicateUsername() {
+        User payload = new User(null, "ERIC", "greenbay", "user", true);
+
+        this.webTestClient.post().uri(this.baseUrl + "/users")
+                .headers(headers -> headers.setBearerAuth(this.token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(payload)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("A user without the admin role cannot add users")
+    void testAddUserWithoutAdminRole() {
+        String ericToken = (String) this.webTestClient.post().uri(this.baseUrl + "/users/login")
+                .headers(headers -> headers.setBasicAuth("eric", "654321"))
+                .exchange()
+                .expectBody(new ParameterizedTypeReference<Map<String, Object>>() {
+                })
+                .returnResult().getResponseBody().get("token");
+
+        this.webTestClient.post().uri(this.baseUrl + "/users")
+                .headers(headers -> headers.setBearerAuth(ericToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new User(null, "carl", "secret", "user", true))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+}
@@ -4,9 +4,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.SpringBasicAuth.security.dto.RefreshTokenRequest;
+
 @RestController
 @RequestMapping("${api.endpoint.base-url}/users")
 public class AuthController {
@@ -39,4 +42,16 @@ public class AuthController {
         return new ResponseEntity<Object>(this.authService.createLoginInfo(authentication), HttpStatus.OK);
     }
 
+    /**
+     * Trade the refresh token from the last login or refresh for a new JSON web
+     * token. Needs no other credentials. The refresh token in the response
+     * replaces the one sent; each can be used only once.
+     *
+     * @return User information, JSON web token and the next refresh token
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<Object> refreshToken(@RequestBody RefreshTokenRequest request) {
+        return new ResponseEntity<Object>(this.authService.refresh(request.refreshToken()), HttpStatus.OK);
+    }
+
 }
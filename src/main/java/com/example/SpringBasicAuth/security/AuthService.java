@@ -3,11 +3,16 @@ package com.example.SpringBasicAuth.security;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.SpringBasicAuth.system.exception.InvalidRefreshTokenException;
 import com.example.SpringBasicAuth.user.User;
 import com.example.SpringBasicAuth.user.UserPrincipal;
+import com.example.SpringBasicAuth.user.UserService;
 import com.example.SpringBasicAuth.user.converter.UserToUserDtoConverter;
 import com.example.SpringBasicAuth.user.dto.UserDto;
 
@@ -18,12 +23,50 @@ public class AuthService {
 
     private final UserToUserDtoConverter userToUserDtoConverter;
 
-    public AuthService(JwtProvider jwtProvider, UserToUserDtoConverter userToUserDtoConverter) {
+    private final RefreshTokenService refreshTokenService;
+
+    private final UserService userService;
+
+    private final LoginAttemptTracker loginAttempts; // null when lockout is disabled
+
+    public AuthService(JwtProvider jwtProvider, UserToUserDtoConverter userToUserDtoConverter,
+            RefreshTokenService refreshTokenService, UserService userService,
+            ObjectProvider<LoginAttemptTracker> loginAttempts) {
         this.jwtProvider = jwtProvider;
         this.userToUserDtoConverter = userToUserDtoConverter;
+        this.refreshTokenService = refreshTokenService;
+        this.userService = userService;
+        this.loginAttempts = loginAttempts.getIfAvailable();
     }
 
     public Map<String, Object> createLoginInfo(Authentication authentication) {
+        // A new refresh token family starts at every login.
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        String refreshToken = this.refreshTokenService.issue(principal.getUser().getId());
+        return this.createLoginInfo(authentication, refreshToken);
+    }
+
+    /**
+     * Trades a refresh token for a new access token and the next refresh token.
+     * The user is checked again, by id, but no password is hashed. A disabled or
+     * locked user's token is rejected before it is used up, including a lock
+     * LoginAttemptTracker has taken but not stored yet.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class) // Keeps a reused token's family revoked.
+    public Map<String, Object> refresh(String refreshToken) {
+        RefreshToken stored = this.refreshTokenService.find(refreshToken);
+        UserPrincipal principal = new UserPrincipal(this.userService.findById(stored.getUserId()));
+        if (!principal.isEnabled() || !principal.isAccountNonLocked()
+                || (this.loginAttempts != null && this.loginAttempts.isLocked(principal.getUsername()))) {
+            throw new InvalidRefreshTokenException();
+        }
+        String nextRefreshToken = this.refreshTokenService.rotate(stored);
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(principal, null,
+                principal.getAuthorities());
+        return this.createLoginInfo(authentication, nextRefreshToken);
+    }
+
+    private Map<String, Object> createLoginInfo(Authentication authentication, String refreshToken) {
         // Create user info.
         UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
         User user = principal.getUser();
@@ -35,6 +78,7 @@ public class AuthService {
 
         loginResultMap.put("userInfo", userDto);
         loginResultMap.put("token", token);
+        loginResultMap.put("refreshToken", refreshToken);
 
         return loginResultMap;
     }
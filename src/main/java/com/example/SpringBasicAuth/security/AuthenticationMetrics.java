@@ -0,0 +1,77 @@
+package com.example.SpringBasicAuth.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts authentication attempts as auth.attempts, tagged with the method
+ * (basic or bearer) and the outcome.
+ * <p>
+ * Successes come from the AuthenticationSuccessEvent the ProviderManager
+ * publishes. Failures are counted by the entry points, since they see every
+ * rejected request, including those without credentials, while the failure
+ * events skip exceptions they have no mapping for (InvalidBearerTokenException).
+ */
+@Component
+public class AuthenticationMetrics {
+
+    static final String METHOD_BASIC = "basic";
+
+    static final String METHOD_BEARER = "bearer";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter basicSuccess;
+
+    private final Counter bearerSuccess;
+
+    // Per method, keyed by exception class, so a failure does not build and look
+    // up its counter in the registry.
+    private final Map<String, ConcurrentMap<Class<?>, Counter>> failures = Map.of(
+            METHOD_BASIC, new ConcurrentHashMap<>(),
+            METHOD_BEARER, new ConcurrentHashMap<>());
+
+    public AuthenticationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.basicSuccess = this.counter(METHOD_BASIC, "success", "none");
+        this.bearerSuccess = this.counter(METHOD_BEARER, "success", "none");
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        Authentication authentication = event.getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken) {
+            this.bearerSuccess.increment();
+        } else if (authentication instanceof UsernamePasswordAuthenticationToken) {
+            this.basicSuccess.increment();
+        }
+    }
+
+    public void failure(String method, AuthenticationException ex) {
+        this.failures.get(method)
+                .computeIfAbsent(ex.getClass(), type -> this.counter(method, "failure", type.getSimpleName()))
+                .increment();
+    }
+
+    private Counter counter(String method, String outcome, String reason) {
+        return Counter.builder("auth.attempts")
+                .description("Authentication attempts")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(this.meterRegistry);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.example.SpringBasicAuth.security;
+
+import java.util.Collection;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Same result as JwtAuthenticationConverter, but the authorities of a token are
+ * only built once.
+ * <p>
+ * The cache is keyed by the Jwt instance (weak keys compare by identity).
+ * CachingJwtDecoder returns the same instance for a reused token, so repeat
+ * requests hit, and entries go away once the decoder drops the token. A new
+ * JwtAuthenticationToken is still created per request, because the resource
+ * server sets request-specific details on it.
+ */
+public class CachingJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final Converter<Jwt, Collection<GrantedAuthority>> jwtGrantedAuthoritiesConverter;
+
+    private final Cache<Jwt, Collection<GrantedAuthority>> authorities;
+
+    public CachingJwtAuthenticationConverter(
+            Converter<Jwt, Collection<GrantedAuthority>> jwtGrantedAuthoritiesConverter, long maximumSize) {
+        this.jwtGrantedAuthoritiesConverter = jwtGrantedAuthoritiesConverter;
+        this.authorities = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Collection<GrantedAuthority> grantedAuthorities = this.authorities.get(jwt,
+                this.jwtGrantedAuthoritiesConverter::convert);
+        return new JwtAuthenticationToken(jwt, grantedAuthorities, jwt.getSubject());
+    }
+
+}
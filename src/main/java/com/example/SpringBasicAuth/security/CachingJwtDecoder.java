@@ -0,0 +1,100 @@
+package com.example.SpringBasicAuth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers tokens that passed signature and claim validation, so a client
+ * reusing its token skips the RSA verification and JSON parsing.
+ * <p>
+ * Entries are keyed by the SHA-256 of the raw token and expire no later than
+ * the token's exp claim. Tokens without exp are not cached. Only successfully
+ * decoded tokens are stored, so invalid tokens always reach the delegate.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+
+    private final JwtDecoder delegate;
+
+    private final Cache<String, Jwt> decoded;
+
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(CachingJwtDecoder::newDigest);
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        this.delegate = delegate;
+        this.decoded = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = this.key(token);
+        Jwt jwt = this.decoded.getIfPresent(key);
+        if (jwt != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+            return jwt;
+        }
+
+        jwt = this.delegate.decode(token); // Throws if the token is invalid.
+        if (jwt.getExpiresAt() != null) {
+            this.decoded.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.decoded, "jwt.decoded");
+    }
+
+    private String key(String token) {
+        byte[] hash = this.digests.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            long nanos = Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos();
+            return Math.max(nanos, 0L);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.example.SpringBasicAuth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+
+/**
+ * Signs a claims JSON object that the caller has already written, as a compact
+ * JWS.
+ * <p>
+ * NimbusJwtEncoder builds a JWSHeader and a JWTClaimsSet for every token,
+ * serializes both through a JSON library and looks up the signing key in the
+ * JWK set. Here the header, its base64url form and the signer are prepared once
+ * per signing key, so a token costs the payload encoding and the signature.
+ */
+final class CompactJwtEncoder {
+
+    private static final DefaultJWSSignerFactory signerFactory = new DefaultJWSSignerFactory();
+
+    private static final Base64.Encoder base64Url = Base64.getUrlEncoder().withoutPadding();
+
+    private volatile PreparedKey preparedKey;
+
+    /**
+     * @param claims a JSON object, see {@link #appendJsonString}
+     */
+    String encode(JwtSigningKey key, CharSequence claims) {
+        PreparedKey prepared = this.prepare(key);
+        byte[] payload = base64Url.encode(claims.toString().getBytes(StandardCharsets.UTF_8));
+
+        // "<header>.<payload>", signed as is and reused for the token.
+        byte[] signingInput = Arrays.copyOf(prepared.encodedHeader(),
+                prepared.encodedHeader().length + payload.length);
+        System.arraycopy(payload, 0, signingInput, prepared.encodedHeader().length, payload.length);
+
+        try {
+            String signature = prepared.signer().sign(prepared.header(), signingInput).toString();
+            return new String(signingInput, StandardCharsets.US_ASCII) + '.' + signature;
+        } catch (JOSEException ex) {
+            throw new JwtEncodingException("Could not sign token with key " + key.getKeyId(), ex);
+        }
+    }
+
+    /**
+     * Appends a JSON string literal. Claim values come from user input (the
+     * username), so quotes, backslashes and control characters are escaped.
+     */
+    static StringBuilder appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+
+    // Keys change only on rotation, so a race here at worst prepares a key twice.
+    private PreparedKey prepare(JwtSigningKey key) {
+        PreparedKey prepared = this.preparedKey;
+        if (prepared != null && prepared.key() == key) {
+            return prepared;
+        }
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(key.getAlgorithm().getName());
+        JWSHeader header = new JWSHeader.Builder(algorithm).keyID(key.getKeyId()).build();
+        try {
+            prepared = new PreparedKey(key, header,
+                    (header.toBase64URL() + ".").getBytes(StandardCharsets.US_ASCII),
+                    signerFactory.createJWSSigner(key.getJwk(), algorithm));
+        } catch (JOSEException ex) {
+            throw new JwtEncodingException("Could not create a signer for key " + key.getKeyId(), ex);
+        }
+        this.preparedKey = prepared;
+        return prepared;
+    }
+
+    private record PreparedKey(JwtSigningKey key, JWSHeader header, byte[] encodedHeader, JWSSigner signer) {
+    }
+
+}
@@ -20,14 +20,19 @@ public class CustomBasicAuthenticationEntryPoint implements AuthenticationEntryP
 
     private final HandlerExceptionResolver resolver;
 
+    private final AuthenticationMetrics authenticationMetrics;
+
     public CustomBasicAuthenticationEntryPoint(
-            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver,
+            AuthenticationMetrics authenticationMetrics) {
         this.resolver = resolver;
+        this.authenticationMetrics = authenticationMetrics;
     }
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
             AuthenticationException authException) throws IOException, ServletException {
+        this.authenticationMetrics.failure(AuthenticationMetrics.METHOD_BASIC, authException);
         response.addHeader("WWW-Authenticate", "Basic realm=\"Realm\"");
         this.resolver.resolveException(request, response, null, authException);
     }
@@ -19,14 +19,19 @@ public class CustomBearerTokenAuthenticationEntryPoint implements Authentication
 
     private final HandlerExceptionResolver resolver;
 
+    private final AuthenticationMetrics authenticationMetrics;
+
     public CustomBearerTokenAuthenticationEntryPoint(
-            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver,
+            AuthenticationMetrics authenticationMetrics) {
         this.resolver = resolver;
+        this.authenticationMetrics = authenticationMetrics;
     }
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
             AuthenticationException authException) throws IOException, ServletException {
+        this.authenticationMetrics.failure(AuthenticationMetrics.METHOD_BEARER, authException);
         this.resolver.resolveException(request, response, null, authException);
     }
 
@@ -0,0 +1,32 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class JwksController {
+
+    private final JwtKeyStore jwtKeyStore;
+
+    public JwksController(JwtKeyStore jwtKeyStore) {
+        this.jwtKeyStore = jwtKeyStore;
+    }
+
+    /**
+     * Public keys that verify our tokens, including retired keys whose tokens
+     * may still be in use. Empty for HS256.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getJwkSet() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(this.jwtKeyStore.getPublicJwkSet().toJSONObject());
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.example.SpringBasicAuth.security;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+/**
+ * Holds the JWT signing keys and rotates them.
+ * <p>
+ * The newest key signs new tokens; older keys stay available for verification
+ * for the retention period after they were replaced, so no issued token is
+ * invalidated by a rotation. Every token carries the kid of its key.
+ * <p>
+ * With a key directory, each key is stored there as a JWK JSON file
+ * ({@code <kid>.json}) whose {@code iat} is the key's creation time, so copying
+ * or restoring the directory does not change when a key rotates. Keys then
+ * survive restarts, and replicas sharing the directory sign and verify with the
+ * same keys; keys created by another replica are picked up on the next refresh
+ * or when a token with an unknown kid arrives. Without a directory keys only
+ * live in memory, like the old per-boot key.
+ */
+public class JwtKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyStore.class);
+
+    private static final String KEY_FILE_SUFFIX = ".json";
+
+    private static final Set<JWSAlgorithm> SUPPORTED_ALGORITHMS = Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256,
+            JWSAlgorithm.HS256);
+
+    // Limits directory reads caused by tokens with unknown kids.
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private final Path directory;
+
+    private final JwsAlgorithm algorithm;
+
+    private final Duration rotationInterval;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    // Newest first.
+    private volatile List<StoredKey> keys = List.of();
+
+    private volatile JWKSet signingKeys = new JWKSet();
+
+    private volatile JWKSet verificationKeys = new JWKSet();
+
+    private volatile Instant lastLoad = Instant.EPOCH;
+
+    /**
+     * @param directory        where keys are stored, null to keep them in memory
+     * @param algorithm        algorithm for new keys, see JwtSigningKey
+     * @param rotationInterval age at which the signing key is replaced, zero to
+     *                         never rotate
+     * @param retention        how long a replaced key still verifies tokens,
+     *                         should exceed the token lifetime
+     */
+    public JwtKeyStore(Path directory, String algorithm, Duration rotationInterval, Duration retention, Clock clock) {
+        this.directory = directory;
+        this.algorithm = JwtSigningKey.algorithm(algorithm);
+        this.rotationInterval = rotationInterval;
+        this.retention = retention;
+        this.clock = clock;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not create JWT key directory " + directory, ex);
+            }
+        }
+        this.refresh();
+    }
+
+    /**
+     * The key new tokens are signed with.
+     */
+    public JwtSigningKey currentKey() {
+        return this.keys.get(0).key();
+    }
+
+    /**
+     * Public keys for the JWKS endpoint. HMAC secrets are never included.
+     */
+    public JWKSet getPublicJwkSet() {
+        return this.signingKeys.toPublicJWKSet();
+    }
+
+    public JwtEncoder encoder() {
+        return new NimbusJwtEncoder((selector, context) -> selector.select(this.signingKeys));
+    }
+
+    public JwtDecoder decoder() {
+        JWKSource<SecurityContext> jwkSource = (selector, context) -> {
+            List<JWK> matches = selector.select(this.verificationKeys);
+            if (matches.isEmpty() && this.reloadIfStale()) {
+                matches = selector.select(this.verificationKeys);
+            }
+            return matches;
+        };
+        return JwtSigningKey.decoder(SUPPORTED_ALGORITHMS, jwkSource);
+    }
+
+    /**
+     * Picks up keys written by other replicas, rotates the signing key once it is
+     * older than the rotation interval (or uses another algorithm than
+     * configured) and drops keys whose retention has passed.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.key-check-interval:PT1M}",
+            initialDelayString = "${security.jwt.key-check-interval:PT1M}")
+    public synchronized void refresh() {
+        Instant now = this.clock.instant();
+        List<StoredKey> current = this.directory != null ? this.load() : new ArrayList<>(this.keys);
+
+        if (current.isEmpty() || this.needsRotation(current.get(0), now)) {
+            // The JWK keeps iat in whole seconds.
+            Instant createdAt = now.truncatedTo(ChronoUnit.SECONDS);
+            StoredKey created = new StoredKey(JwtSigningKey.generate(this.algorithm.getName(), createdAt),
+                    createdAt);
+            if (this.directory != null) {
+                this.save(created);
+            }
+            current.add(0, created);
+            logger.info("Created {} JWT signing key {}", this.algorithm.getName(), created.key().getKeyId());
+        }
+
+        // A key retires when the next one is created.
+        for (int i = current.size() - 1; i > 0; i--) {
+            Instant retiredAt = current.get(i - 1).created();
+            if (retiredAt.plus(this.retention).isBefore(now)) {
+                this.delete(current.remove(i));
+            }
+        }
+
+        this.publish(current);
+    }
+
+    private boolean needsRotation(StoredKey newest, Instant now) {
+        if (!newest.key().getAlgorithm().equals(this.algorithm)) {
+            return true;
+        }
+        return !this.rotationInterval.isZero() && newest.created().plus(this.rotationInterval).isBefore(now);
+    }
+
+    private boolean reloadIfStale() {
+        if (this.directory == null || this.clock.instant().isBefore(this.lastLoad.plus(MIN_RELOAD_INTERVAL))) {
+            return false;
+        }
+        synchronized (this) {
+            this.publish(this.load());
+        }
+        return true;
+    }
+
+    private void publish(List<StoredKey> current) {
+        List<JWK> jwks = current.stream().map(stored -> stored.key().getJwk()).toList();
+        this.keys = List.copyOf(current);
+        this.signingKeys = new JWKSet(jwks);
+        this.verificationKeys = new JWKSet(jwks.stream().map(JwtSigningKey::verificationKey).toList());
+        this.lastLoad = this.clock.instant();
+    }
+
+    private List<StoredKey> load() {
+        List<StoredKey> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(this.directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(KEY_FILE_SUFFIX)).forEach(file -> {
+                StoredKey key = this.read(file);
+                if (key != null) {
+                    loaded.add(key);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read JWT key directory " + this.directory, ex);
+        }
+        loaded.sort(Comparator.comparing(StoredKey::created).reversed());
+        return loaded;
+    }
+
+    private StoredKey read(Path file) {
+        try {
+            JWK jwk = JWK.parse(Files.readString(file));
+            if (jwk.getAlgorithm() == null || !jwk.isPrivate()) {
+                logger.warn("Ignoring JWT key {}: it needs an alg and its private part", file);
+                return null;
+            }
+            JwtSigningKey key = new JwtSigningKey(JwtSigningKey.algorithm(jwk.getAlgorithm().getName()), jwk);
+            // Keys written before iat was stored only have the file's modified time.
+            Instant created = jwk.getIssueTime() != null ? jwk.getIssueTime().toInstant()
+                    : Files.getLastModifiedTime(file).toInstant();
+            return new StoredKey(key, created);
+        } catch (IOException | ParseException | IllegalArgumentException ex) {
+            logger.warn("Ignoring unreadable JWT key {}", file, ex);
+            return null;
+        }
+    }
+
+    private void save(StoredKey stored) {
+        String keyId = stored.key().getKeyId();
+        try {
+            // A temp file is only readable by its owner on POSIX systems, and the
+            // move makes the key appear complete for other replicas.
+            Path temp = Files.createTempFile(this.directory, keyId, ".tmp");
+            Files.writeString(temp, stored.key().getJwk().toJSONString());
+            Files.move(temp, this.directory.resolve(keyId + KEY_FILE_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store JWT key " + keyId, ex);
+        }
+    }
+
+    private void delete(StoredKey stored) {
+        logger.info("Removing retired JWT signing key {}", stored.key().getKeyId());
+        if (this.directory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(this.directory.resolve(stored.key().getKeyId() + KEY_FILE_SUFFIX));
+        } catch (IOException ex) {
+            logger.warn("Could not delete retired JWT key {}", stored.key().getKeyId(), ex);
+        }
+    }
+
+    private record StoredKey(JwtSigningKey key, Instant created) {
+    }
+
+}
@@ -1,42 +1,117 @@
 package com.example.SpringBasicAuth.security;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.function.Supplier;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.example.SpringBasicAuth.user.RoleRegistry;
+import com.example.SpringBasicAuth.user.UserPrincipal;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Mints the access tokens handed out at login and refresh.
+ * <p>
+ * The claims JSON is written directly and signed by CompactJwtEncoder, which
+ * prepares the header and signer once per signing key. By default every
+ * authority goes into "authorities". With security.jwt.compact-claims the
+ * well-known roles go into the "rc" claim as a RoleRegistry bit mask instead,
+ * e.g. "rc":3 for admin and user, and only other roles into "authorities".
+ * RoleCodeAuthoritiesConverter reads both forms, so tokens minted either way
+ * stay valid across a switch. Instances without it cannot read "rc", so compact
+ * claims are only turned on once every instance has been upgraded.
+ */
 @Component
 public class JwtProvider {
 
-    private JwtEncoder jwtEncoder;
+    public static final String ROLE_CODES_CLAIM = "rc";
+
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    // The user's id, which unlike the subject survives a rename. See TokenRevocationService.
+    public static final String USER_ID_CLAIM = "uid";
+
+    private final JwtKeyStore jwtKeyStore;
+
+    private final ObservationRegistry observationRegistry;
+
+    private final Duration tokenLifetime;
+
+    private final boolean compactClaims;
 
-    public JwtProvider(JwtEncoder jwtEncoder) {
-        this.jwtEncoder = jwtEncoder;
+    private final CompactJwtEncoder compactJwtEncoder = new CompactJwtEncoder();
+
+    public JwtProvider(JwtKeyStore jwtKeyStore, ObservationRegistry observationRegistry,
+            @Value("${security.jwt.access-token-lifetime:15m}") Duration tokenLifetime,
+            @Value("${security.jwt.compact-claims:false}") boolean compactClaims) {
+        this.jwtKeyStore = jwtKeyStore;
+        this.observationRegistry = observationRegistry;
+        this.tokenLifetime = tokenLifetime;
+        this.compactClaims = compactClaims;
     }
 
+    @Timed("jwt.create")
     public String createToken(Authentication authentication) {
-        Instant now = Instant.now();
-        long expiresIn = 2; // hours
-
-        // Prepare a claim called authorities.
-        String authorities = authentication.getAuthorities().stream()
-                .map(grantedAuthority -> grantedAuthority.getAuthority())
-                .collect(Collectors.joining(" ")); // MUST BE space-delimited.
-
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("self")
-                .issuedAt(now)
-                .expiresAt(now.plus(expiresIn, ChronoUnit.HOURS))
-                .subject(authentication.getName())
-                .claim("authorities", authorities)
-                .build();
-
-        return this.jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        long now = Instant.now().getEpochSecond();
+
+        // Prepare a claim called authorities, with the well-known roles taken
+        // out into rc when claims are compact.
+        long roleCodes = 0L;
+        StringBuilder authorities = new StringBuilder();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            int bit = this.compactClaims ? RoleRegistry.wellKnownBit(authority) : -1;
+            if (bit >= 0) {
+                roleCodes |= 1L << bit;
+            } else {
+                if (!authorities.isEmpty()) {
+                    authorities.append(' '); // MUST BE space-delimited.
+                }
+                authorities.append(authority.getAuthority());
+            }
+        }
+
+        StringBuilder claims = new StringBuilder(192)
+                .append("{\"iss\":\"self\",\"iat\":").append(now)
+                .append(",\"exp\":").append(now + this.tokenLifetime.toSeconds())
+                .append(",\"sub\":");
+        CompactJwtEncoder.appendJsonString(claims, authentication.getName())
+                .append(",\"jti\":\"").append(UUID.randomUUID()).append('"'); // So a single token can be revoked.
+        if (this.compactClaims) {
+            claims.append(",\"").append(ROLE_CODES_CLAIM).append("\":").append(roleCodes);
+        }
+        Integer userId = userId(authentication);
+        if (userId != null) {
+            claims.append(",\"").append(USER_ID_CLAIM).append("\":").append(userId);
+        }
+        if (!this.compactClaims || !authorities.isEmpty()) {
+            CompactJwtEncoder.appendJsonString(claims.append(",\"").append(AUTHORITIES_CLAIM).append("\":"),
+                    authorities.toString());
+        }
+        claims.append('}');
+
+        // The kid selects the current signing key.
+        JwtSigningKey key = this.jwtKeyStore.currentKey();
+        return this.sign(key, () -> this.compactJwtEncoder.encode(key, claims));
+    }
+
+    private static Integer userId(Authentication authentication) {
+        return authentication.getPrincipal() instanceof UserPrincipal principal ? principal.getUser().getId() : null;
+    }
+
+    // Its own span, so signing can be told apart from building the claims.
+    private String sign(JwtSigningKey key, Supplier<String> encoder) {
+        return Observation.createNotStarted("jwt.sign", this.observationRegistry)
+                .contextualName("jwt sign")
+                .lowCardinalityKeyValue("algorithm", key.getAlgorithm().getName())
+                .observe(encoder);
     }
 
 }
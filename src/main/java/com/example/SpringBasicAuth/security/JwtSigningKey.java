@@ -0,0 +1,145 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.JWKGenerator;
+import com.nimbusds.jose.jwk.gen.OctetSequenceKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+/**
+ * The key used to sign and verify our tokens, together with its algorithm.
+ * <p>
+ * Supported algorithms:
+ * <ul>
+ * <li>RS256 - RSA-2048, the original default. Slowest to sign.</li>
+ * <li>ES256 - ECDSA P-256. Much faster signing, smaller tokens.</li>
+ * <li>HS256 - HMAC-SHA256 with a 256-bit secret. Fastest, but only usable when
+ * the service that issues the token is also the only one verifying it.</li>
+ * </ul>
+ */
+public final class JwtSigningKey {
+
+    private final JwsAlgorithm algorithm;
+
+    private final JWK jwk;
+
+    public JwtSigningKey(JwsAlgorithm algorithm, JWK jwk) {
+        this.algorithm = algorithm;
+        this.jwk = jwk;
+    }
+
+    /**
+     * Generates a new random key for the given algorithm name (RS256, ES256 or
+     * HS256).
+     */
+    public static JwtSigningKey generate(String algorithm) {
+        return generate(algorithm, Instant.now());
+    }
+
+    /**
+     * Generates a new random key whose JWK records {@code issuedAt} as its
+     * {@code iat}, so the creation time travels with the key.
+     */
+    public static JwtSigningKey generate(String algorithm, Instant issuedAt) {
+        JwsAlgorithm jwsAlgorithm = algorithm(algorithm);
+        JWKGenerator<? extends JWK> generator = switch (jwsAlgorithm.getName()) {
+            case "RS256" -> new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS);
+            case "ES256" -> new ECKeyGenerator(Curve.P_256);
+            default -> new OctetSequenceKeyGenerator(256);
+        };
+        try {
+            JWK jwk = generator
+                    .keyID(UUID.randomUUID().toString())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.parse(jwsAlgorithm.getName()))
+                    .issueTime(Date.from(issuedAt))
+                    .generate();
+            return new JwtSigningKey(jwsAlgorithm, jwk);
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Could not generate " + jwsAlgorithm.getName() + " key", ex);
+        }
+    }
+
+    /**
+     * Resolves a configured algorithm name. EdDSA is not offered because
+     * Nimbus needs Google Tink for Ed25519 and Spring Security has no JwsAlgorithm
+     * for it; ES256 is the fast asymmetric choice instead.
+     */
+    public static JwsAlgorithm algorithm(String name) {
+        return switch (name.toUpperCase(Locale.ROOT)) {
+            case "RS256" -> SignatureAlgorithm.RS256;
+            case "ES256" -> SignatureAlgorithm.ES256;
+            case "HS256" -> MacAlgorithm.HS256;
+            default -> throw new IllegalArgumentException(
+                    "Unsupported JWT algorithm " + name + ", expected RS256, ES256 or HS256");
+        };
+    }
+
+    public JwsAlgorithm getAlgorithm() {
+        return this.algorithm;
+    }
+
+    public JWK getJwk() {
+        return this.jwk;
+    }
+
+    public String getKeyId() {
+        return this.jwk.getKeyID();
+    }
+
+    public JwtEncoder encoder() {
+        return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(this.jwk)));
+    }
+
+    public JwtDecoder decoder() {
+        JWKSource<SecurityContext> jwkSet = new ImmutableJWKSet<>(new JWKSet(verificationKey(this.jwk)));
+        return decoder(Set.of(JWSAlgorithm.parse(this.algorithm.getName())), jwkSet);
+    }
+
+    /**
+     * The part of a key needed to verify signatures. A MAC key has no public
+     * half; it verifies with the secret itself.
+     */
+    static JWK verificationKey(JWK jwk) {
+        return jwk instanceof OctetSequenceKey ? jwk : jwk.toPublicJWK();
+    }
+
+    /**
+     * A decoder that accepts the given algorithms, with keys looked up by the
+     * token's kid and alg headers.
+     */
+    static JwtDecoder decoder(Set<JWSAlgorithm> algorithms, JWKSource<SecurityContext> jwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+        // Claims are validated by NimbusJwtDecoder's OAuth2TokenValidator.
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(jwtProcessor);
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Counts failed password checks per username and locks the account once
+ * max-failures of them fall within the window.
+ * <p>
+ * Failures and locks are kept in memory only; a login never writes to the
+ * database. New locks are written to the users table (locked_until) by flush,
+ * all of them in one statement, so they survive a restart and reach the other
+ * instances once their cached principals expire. The stored lock ends up to
+ * one flush interval later than the one kept here.
+ */
+public class LoginAttemptTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+    private final int maxFailures;
+
+    private final Duration window;
+
+    private final Duration lockDuration;
+
+    private final Clock clock;
+
+    private final UserService userService;
+
+    private final Cache<String, FailureWindow> failures; // username key -> recent failures
+
+    private final Cache<String, Instant> locks; // username key -> locked until
+
+    private final Set<String> pendingLocks = ConcurrentHashMap.newKeySet(); // not written yet
+
+    public LoginAttemptTracker(int maxFailures, Duration window, Duration lockDuration, long maximumSize,
+            Clock clock, UserService userService) {
+        this.maxFailures = maxFailures;
+        this.window = window;
+        this.lockDuration = lockDuration;
+        this.clock = clock;
+        this.userService = userService;
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(window)
+                .build();
+        this.locks = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(lockDuration)
+                .build();
+    }
+
+    public boolean isLocked(String username) {
+        Instant lockedUntil = this.locks.getIfPresent(User.toUsernameKey(username));
+        return lockedUntil != null && lockedUntil.isAfter(this.clock.instant());
+    }
+
+    public void recordFailure(String username) {
+        String key = User.toUsernameKey(username);
+        Instant now = this.clock.instant();
+        FailureWindow recent = this.failures.get(key, k -> new FailureWindow(this.maxFailures));
+        if (recent.add(now.toEpochMilli(), this.window.toMillis())) {
+            this.locks.put(key, now.plus(this.lockDuration));
+            this.pendingLocks.add(key);
+            this.failures.invalidate(key);
+            logger.warn("Locked user {} for {} after {} failed logins", username, this.lockDuration, this.maxFailures);
+        }
+    }
+
+    public void recordSuccess(String username) {
+        this.failures.invalidate(User.toUsernameKey(username));
+    }
+
+    /**
+     * Writes the locks taken since the last flush. Failed writes are retried on
+     * the next run.
+     */
+    @Scheduled(fixedDelayString = "${security.lockout.flush-interval:PT5S}",
+            initialDelayString = "${security.lockout.flush-interval:PT5S}")
+    public void flush() {
+        List<String> usernameKeys = new ArrayList<>(this.pendingLocks);
+        if (usernameKeys.isEmpty()) {
+            return;
+        }
+        usernameKeys.forEach(this.pendingLocks::remove);
+        try {
+            this.userService.lockAccounts(usernameKeys, this.clock.instant().plus(this.lockDuration));
+        } catch (RuntimeException ex) {
+            this.pendingLocks.addAll(usernameKeys);
+            logger.warn("Could not store {} account locks, will retry", usernameKeys.size(), ex);
+        }
+    }
+
+    /**
+     * The times of the last max-failures failures, oldest first once full.
+     */
+    private static class FailureWindow {
+
+        private final long[] times;
+
+        private int next;
+
+        private int count;
+
+        FailureWindow(int size) {
+            this.times = new long[size];
+        }
+
+        // Returns whether the last times.length failures all fall within the window.
+        synchronized boolean add(long now, long windowMillis) {
+            this.times[this.next] = now;
+            this.next = (this.next + 1) % this.times.length;
+            this.count = Math.min(this.count + 1, this.times.length);
+            return this.count == this.times.length && now - this.times[this.next] < windowMillis;
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.SpringBasicAuth.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.example.SpringBasicAuth.system.exception.LoginRateLimitedException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runs before the BasicAuthenticationFilter. Requests carrying Basic
+ * credentials take a token per client address and per username; without one
+ * the request gets a 429 and no password is checked. Both tokens are given
+ * back once the BasicAuthenticationFilter has accepted the credentials, so only
+ * failed attempts are limited. Bearer and anonymous requests pass through
+ * untouched.
+ * <p>
+ * The address is the request's remote address. Behind a proxy or load balancer
+ * that is the proxy's, unless server.forward-headers-strategy resolves the
+ * client address from the forwarded headers (the prod profile does).
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BASIC = "Basic ";
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final HandlerExceptionResolver resolver;
+
+    public LoginRateLimitFilter(LoginRateLimiter loginRateLimiter, HandlerExceptionResolver resolver) {
+        this.loginRateLimiter = loginRateLimiter;
+        this.resolver = resolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String address = request.getRemoteAddr();
+        String username = username(header);
+        long wait = this.loginRateLimiter.tryAcquire(address, username);
+        if (wait > 0) {
+            long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+            this.resolver.resolveException(request, response, null,
+                    new LoginRateLimitedException(retryAfterSeconds));
+            return;
+        }
+        filterChain.doFilter(request, response);
+
+        // The context is still the one the BasicAuthenticationFilter set up.
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (username != null && authentication instanceof UsernamePasswordAuthenticationToken
+                && authentication.isAuthenticated()) {
+            this.loginRateLimiter.succeeded(address, username);
+        }
+    }
+
+    // Reads the username like BasicAuthenticationConverter does. Malformed
+    // headers are left to the BasicAuthenticationFilter to reject.
+    private static String username(String header) {
+        try {
+            byte[] decoded = Base64.getDecoder().decode(header.substring(BASIC.length()).trim());
+            String credentials = new String(decoded, StandardCharsets.UTF_8);
+            int separator = credentials.indexOf(':');
+            return separator < 0 ? null : credentials.substring(0, separator);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+}
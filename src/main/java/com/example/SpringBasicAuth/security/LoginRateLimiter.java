@@ -0,0 +1,49 @@
+package com.example.SpringBasicAuth.security;
+
+import com.example.SpringBasicAuth.user.User;
+
+/**
+ * Limits password checks per client address and per username, so a flood of
+ * Basic Auth attempts is turned away before it reaches the password hashing
+ * pool. See LoginRateLimitFilter.
+ * <p>
+ * Only failed checks count: both tokens are given back when the credentials
+ * are right, so a client using Basic Auth on every request is not throttled by
+ * its own traffic, and many clients behind one proxy address do not use up that
+ * address's budget by logging in successfully.
+ */
+public class LoginRateLimiter {
+
+    private final TokenBuckets addresses;
+
+    private final TokenBuckets usernames;
+
+    public LoginRateLimiter(TokenBuckets addresses, TokenBuckets usernames) {
+        this.addresses = addresses;
+        this.usernames = usernames;
+    }
+
+    /**
+     * Takes a token for the address and, if there is one, for the username.
+     *
+     * @param username null when the credentials could not be read
+     * @return 0 if the attempt may go ahead, otherwise the nanoseconds to wait
+     */
+    public long tryAcquire(String address, String username) {
+        long wait = this.addresses.tryAcquire(address);
+        if (wait > 0 || username == null) {
+            return wait;
+        }
+        return this.usernames.tryAcquire(User.toUsernameKey(username));
+    }
+
+    /**
+     * Gives back the address and username tokens after the credentials were
+     * accepted.
+     */
+    public void succeeded(String address, String username) {
+        this.addresses.refund(address);
+        this.usernames.refund(User.toUsernameKey(username));
+    }
+
+}
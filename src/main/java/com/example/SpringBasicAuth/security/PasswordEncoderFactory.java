@@ -0,0 +1,115 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+/**
+ * Builds the DelegatingPasswordEncoder used for user passwords.
+ * <p>
+ * New hashes use the configured algorithm. For BCrypt and Argon2 the cost is
+ * picked at startup: the highest cost whose hash fits in the latency budget on
+ * this host, between the algorithm's minimum and maximum. Stored hashes keep working whatever
+ * they were created with (including the old unprefixed BCrypt ones) and are
+ * upgraded on the next successful login, see
+ * DaoAuthenticationProvider#setUserDetailsPasswordService.
+ */
+public final class PasswordEncoderFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderFactory.class);
+
+    // BCrypt strength is a log2 work factor: each step doubles the hashing time.
+    // The floor is the strength used before calibration; a lower one has to be
+    // configured explicitly.
+    private static final int MIN_BCRYPT_STRENGTH = 12;
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
+    // Argon2 iterations are passes over the 16 MiB memory: each step adds one pass.
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+
+    private static final int MAX_ARGON2_ITERATIONS = 10;
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private PasswordEncoderFactory() {
+    }
+
+    /**
+     * @param algorithm   bcrypt, argon2 or pbkdf2
+     * @param budget      target time for one hash
+     * @param minimumCost BCrypt strength or Argon2 iterations to use at least, 0
+     *                    for the algorithm's own minimum; may be set below it
+     * @param fixedCost   skip benchmarking and use this cost, 0 to benchmark
+     * @return an encoder that hashes with the given algorithm and matches all of them
+     */
+    public static PasswordEncoder create(String algorithm, Duration budget, int minimumCost, int fixedCost) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder());
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        // PBKDF2 hashes do not record their iteration count, so its cost must never change.
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        switch (algorithm) {
+            case "bcrypt" -> encoders.put("bcrypt",
+                    calibrate("bcrypt strength", budget, orDefault(minimumCost, MIN_BCRYPT_STRENGTH),
+                            MAX_BCRYPT_STRENGTH, fixedCost, BCryptPasswordEncoder::new));
+            case "argon2" -> encoders.put("argon2",
+                    calibrate("argon2 iterations", budget, orDefault(minimumCost, MIN_ARGON2_ITERATIONS),
+                            MAX_ARGON2_ITERATIONS, fixedCost, PasswordEncoderFactory::argon2));
+            case "pbkdf2" -> {
+            }
+            default -> throw new IllegalArgumentException("Unsupported password algorithm " + algorithm);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt.
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return passwordEncoder;
+    }
+
+    static PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, 1 << 14, iterations);
+    }
+
+    static PasswordEncoder calibrate(String name, Duration budget, int minimumCost, int maximumCost,
+            int fixedCost, IntFunction<PasswordEncoder> encoderForCost) {
+        if (fixedCost > 0) {
+            logger.info("Using configured {} {}", name, fixedCost);
+            return encoderForCost.apply(fixedCost);
+        }
+        if (minimumCost > maximumCost) {
+            throw new IllegalArgumentException(
+                    "Minimum " + name + " " + minimumCost + " is above the maximum of " + maximumCost);
+        }
+
+        // Hashing time only grows with the cost, so stop at the first one over budget.
+        int cost = minimumCost;
+        while (cost < maximumCost && time(encoderForCost.apply(cost + 1)).compareTo(budget) <= 0) {
+            cost++;
+        }
+        logger.info("Using {} {} for a hashing budget of {} ms", name, cost, budget.toMillis());
+        return encoderForCost.apply(cost);
+    }
+
+    private static int orDefault(int cost, int defaultCost) {
+        return cost > 0 ? cost : defaultCost;
+    }
+
+    private static Duration time(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD); // Warm up.
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.SpringBasicAuth.system.exception.PasswordHashingRejectedException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Runs password hashing on its own fixed-size pool instead of on Tomcat worker
+ * threads.
+ * <p>
+ * This is the application's PasswordEncoder, so UserService and Basic Auth both
+ * go through it. The queue is bounded: when it is full the caller gets a
+ * PasswordHashingRejectedException (503) right away instead of waiting, and
+ * cheap requests keep their threads.
+ * <p>
+ * The counters below are published as password.hashing.* meters. They are read
+ * at scrape time, so hashing itself records nothing beyond the LongAdders.
+ * Each call is also a password.hashing.request observation (queue wait plus
+ * hashing), which shows up as a span of the calling request.
+ */
+public class PasswordHashingService implements PasswordEncoder, DisposableBean, MeterBinder {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ObservationRegistry observationRegistry;
+
+    private final LongAdder hashCount = new LongAdder();
+
+    private final LongAdder hashNanos = new LongAdder(); // Time spent hashing.
+
+    private final LongAdder waitNanos = new LongAdder(); // Time spent in the queue.
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public PasswordHashingService(PasswordEncoder delegate, int poolSize, int queueCapacity,
+            ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return this.observe("encode", () -> this.await(this.submit(() -> this.delegate.encode(rawPassword))));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return this.observe("matches",
+                () -> this.await(this.submit(() -> this.delegate.matches(rawPassword, encodedPassword))));
+    }
+
+    /**
+     * Hashes a batch of passwords on the pool and returns the hashes in the same
+     * order. The calling thread only waits: at most one pool's worth of the batch
+     * is queued at a time, so a large batch cannot fill the queue on its own and
+     * starve logins. If the queue is full anyway, the batch waits for its own
+     * oldest hash and tries again; it is rejected only when it has nothing left
+     * to wait for.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return this.observe("encodeAll", () -> {
+            List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+            List<String> encoded = new ArrayList<>(rawPasswords.size());
+            try {
+                for (CharSequence rawPassword : rawPasswords) {
+                    Callable<String> task = () -> this.delegate.encode(rawPassword);
+                    if (futures.size() - encoded.size() >= this.getPoolSize()) {
+                        encoded.add(this.await(futures.get(encoded.size())));
+                    }
+                    Future<String> future = this.trySubmit(task);
+                    while (future == null && encoded.size() < futures.size()) {
+                        encoded.add(this.await(futures.get(encoded.size())));
+                        future = this.trySubmit(task);
+                    }
+                    futures.add(future != null ? future : this.submit(task));
+                }
+                while (encoded.size() < futures.size()) {
+                    encoded.add(this.await(futures.get(encoded.size())));
+                }
+            } catch (RuntimeException ex) {
+                futures.forEach(future -> future.cancel(true));
+                throw ex;
+            }
+            return encoded;
+        });
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword); // Cheap, no need to queue.
+    }
+
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return this.executor.getMaximumPoolSize();
+    }
+
+    public long getHashCount() {
+        return this.hashCount.sum();
+    }
+
+    public Duration getTotalHashTime() {
+        return Duration.ofNanos(this.hashNanos.sum());
+    }
+
+    public Duration getTotalWaitTime() {
+        return Duration.ofNanos(this.waitNanos.sum());
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("password.hashing", this, PasswordHashingService::getHashCount,
+                service -> service.hashNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent hashing and checking passwords")
+                .register(registry);
+        FunctionTimer.builder("password.hashing.wait", this, PasswordHashingService::getHashCount,
+                service -> service.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time password hashing requests spent in the queue")
+                .register(registry);
+        FunctionCounter.builder("password.hashing.rejected", this, PasswordHashingService::getRejectedCount)
+                .description("Requests rejected because the hashing queue was full")
+                .register(registry);
+        Gauge.builder("password.hashing.queue.depth", this, PasswordHashingService::getQueueDepth)
+                .register(registry);
+        Gauge.builder("password.hashing.active", this, PasswordHashingService::getActiveCount)
+                .register(registry);
+        Gauge.builder("password.hashing.pool.size", this, PasswordHashingService::getPoolSize)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    private <T> T observe(String operation, Supplier<T> call) {
+        return Observation.createNotStarted("password.hashing.request", this.observationRegistry)
+                .contextualName("password " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .observe(call);
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        Future<T> future = this.trySubmit(task);
+        if (future == null) {
+            this.rejectedCount.increment();
+            throw new PasswordHashingRejectedException();
+        }
+        return future;
+    }
+
+    // Returns null when the queue is full.
+    private <T> Future<T> trySubmit(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return this.executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                this.waitNanos.add(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    this.hashNanos.add(System.nanoTime() - startedAt);
+                    this.hashCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+}
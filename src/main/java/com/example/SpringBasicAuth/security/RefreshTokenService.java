@@ -0,0 +1,149 @@
+package com.example.SpringBasicAuth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.SpringBasicAuth.system.exception.InvalidRefreshTokenException;
+import com.example.SpringBasicAuth.user.UserChangedEvent;
+
+/**
+ * Opaque refresh tokens: 256 random bits, of which only the SHA-256 is stored.
+ * Refreshing is one lookup on the unique token_hash index instead of a
+ * password check.
+ * <p>
+ * A token can be used once; refreshing returns its successor in the same
+ * family. If a token that was already used shows up again, it was copied by
+ * someone, so the whole family is revoked and both parties have to log in again.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final Duration tokenLifetime;
+
+    private final Clock clock = Clock.systemUTC();
+
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            @Value("${security.jwt.refresh-token-lifetime:14d}") Duration tokenLifetime) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenLifetime = tokenLifetime;
+    }
+
+    /**
+     * Starts a new family, at login. Tokens belong to the user id, so they stay
+     * with the account when it is renamed.
+     */
+    public String issue(Integer userId) {
+        return this.issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Looks up a token without using it up, so the caller can check its user
+     * before calling {@link #rotate(RefreshToken)}.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown or expired
+     */
+    @Transactional(readOnly = true, noRollbackFor = InvalidRefreshTokenException.class)
+    public RefreshToken find(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidRefreshTokenException();
+        }
+        RefreshToken stored = this.refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        if (!stored.getExpiresAt().isAfter(this.clock.instant())) {
+            throw new InvalidRefreshTokenException();
+        }
+        return stored;
+    }
+
+    /**
+     * Uses up the token and returns its successor.
+     *
+     * @throws InvalidRefreshTokenException if the token was used before
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public String rotate(RefreshToken stored) {
+        if (this.refreshTokenRepository.markUsed(stored.getId(), this.clock.instant()) == 0) {
+            this.refreshTokenRepository.deleteFamily(stored.getFamilyId()); // Kept, see noRollbackFor.
+            logger.warn("Refresh token reused for user {}, revoked its family", stored.getUserId());
+            throw new InvalidRefreshTokenException();
+        }
+        return this.issue(stored.getUserId(), stored.getFamilyId());
+    }
+
+    // Runs in the transaction that changed the user, like the access token
+    // revocation. Deleted users' tokens also go with the row (on delete cascade).
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        switch (event.change()) {
+            case DISABLED, DELETED, PASSWORD_CHANGED ->
+                this.refreshTokenRepository.deleteByUserId(event.id());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Deletes expired tokens, CLEANUP_BATCH_SIZE rows per statement and
+     * transaction, so a large backlog never holds long locks.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-token-cleanup-interval:PT1H}",
+            initialDelayString = "${security.jwt.refresh-token-cleanup-interval:PT1H}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteExpired() {
+        Instant now = this.clock.instant();
+        List<Long> expired;
+        do {
+            expired = this.refreshTokenRepository.findExpiredIds(now, Pageable.ofSize(CLEANUP_BATCH_SIZE));
+            if (!expired.isEmpty()) {
+                this.refreshTokenRepository.deleteAllByIdInBatch(expired); // One transaction per batch.
+            }
+        } while (expired.size() == CLEANUP_BATCH_SIZE);
+    }
+
+    private String issue(Integer userId, String familyId) {
+        byte[] bytes = new byte[32];
+        this.random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        this.refreshTokenRepository.save(
+                new RefreshToken(hash(token), familyId, userId, this.clock.instant().plus(this.tokenLifetime)));
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.example.SpringBasicAuth.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Rejects revoked tokens (see TokenRevocationService). Wraps the caching
+ * decoder, so tokens served from the cache are checked too.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder, MeterBinder {
+
+    private final JwtDecoder delegate;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, TokenRevocationService tokenRevocationService) {
+        this.delegate = delegate;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = this.delegate.decode(token);
+        if (this.tokenRevocationService.isRevoked(jwt)) {
+            throw new BadJwtException("Token has been revoked"); // Becomes an InvalidBearerTokenException (401).
+        }
+        return jwt;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (this.delegate instanceof MeterBinder binder) {
+            binder.bindTo(registry);
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.SpringBasicAuth.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.SpringBasicAuth.user.RoleRegistry;
+
+/**
+ * The authorities of a token minted by JwtProvider: the well-known roles in the
+ * "rc" bit mask, as RoleRegistry's shared authorities, plus whatever the
+ * delegate reads from the "authorities" claim. Tokens without "rc" (minted with
+ * security.jwt.compact-claims off) only have the latter.
+ */
+public class RoleCodeAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private final Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+
+    public RoleCodeAuthoritiesConverter(Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter) {
+        this.authoritiesConverter = authoritiesConverter;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = this.authoritiesConverter.convert(jwt);
+        if (!(jwt.getClaims().get(JwtProvider.ROLE_CODES_CLAIM) instanceof Number roleCodes)) {
+            return authorities;
+        }
+        List<GrantedAuthority> wellKnown = RoleRegistry.wellKnownAuthorities(roleCodes.longValue());
+        if (authorities == null || authorities.isEmpty()) {
+            return wellKnown;
+        }
+        List<GrantedAuthority> combined = new ArrayList<>(wellKnown.size() + authorities.size());
+        combined.addAll(wellKnown);
+        combined.addAll(authorities);
+        return combined;
+    }
+
+}
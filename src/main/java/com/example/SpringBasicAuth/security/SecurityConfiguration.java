@@ -1,36 +1,37 @@
 package com.example.SpringBasicAuth.security;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
+import com.example.SpringBasicAuth.user.CachedUserDetailsService;
+import com.example.SpringBasicAuth.user.UserPrincipalCache;
+import com.example.SpringBasicAuth.user.UserService;
+
+import io.micrometer.observation.ObservationRegistry;
 
 import static org.springframework.boot.autoconfigure.security.servlet.PathRequest.toH2Console;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 public class SecurityConfiguration {
@@ -38,9 +39,9 @@ public class SecurityConfiguration {
     @Value("${api.endpoint.base-url}")
     private String baseUrl;
 
-    private final RSAPublicKey publicKey;
-
-    private final RSAPrivateKey privateKey;
+    // toH2Console() can only be matched while the console is on (the prod profile turns it off).
+    @Value("${spring.h2.console.enabled:false}")
+    private boolean h2ConsoleEnabled;
 
     private final CustomBasicAuthenticationEntryPoint customBasicAuthenticationEntryPoint;
 
@@ -50,24 +51,32 @@ public class SecurityConfiguration {
 
     public SecurityConfiguration(CustomBasicAuthenticationEntryPoint customBasicAuthenticationEntryPoint,
             CustomBearerTokenAuthenticationEntryPoint customBearerTokenAuthenticationEntryPoint,
-            CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler) throws NoSuchAlgorithmException {
+            CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler) {
         this.customBasicAuthenticationEntryPoint = customBasicAuthenticationEntryPoint;
         this.customBearerTokenAuthenticationEntryPoint = customBearerTokenAuthenticationEntryPoint;
         this.customBearerTokenAccessDeniedHandler = customBearerTokenAccessDeniedHandler;
-
-        // Generate a public/private key pair.
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-        keyPairGenerator.initialize(2048); // The generated key will have a size of 2048 bits.
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
-        this.publicKey = (RSAPublicKey) keyPair.getPublic();
-        this.privateKey = (RSAPrivateKey) keyPair.getPrivate();
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+            CachingJwtAuthenticationConverter jwtAuthenticationConverter,
+            ObjectProvider<LoginRateLimiter> loginRateLimiter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) throws Exception {
+        // Turn away login floods before any password is hashed.
+        loginRateLimiter.ifAvailable(limiter -> http.addFilterBefore(new LoginRateLimitFilter(limiter, resolver),
+                BasicAuthenticationFilter.class));
+
         http
                 .authorizeHttpRequests(auth -> {
-                    auth.requestMatchers(toH2Console()).permitAll();
+                    if (this.h2ConsoleEnabled) {
+                        auth.requestMatchers(toH2Console()).permitAll();
+                    }
+                    auth.requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll();
+                    auth.requestMatchers(HttpMethod.POST, this.baseUrl + "/users/token/refresh").permitAll();
+                    auth.requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll();
+                    // Failure counts, cache sizes and pool saturation are not public.
+                    auth.requestMatchers(EndpointRequest.to(PrometheusScrapeEndpoint.class)).hasAuthority("ROLE_admin");
+                    auth.requestMatchers(this.baseUrl + "/users/bulk/**").hasAuthority("ROLE_admin");
                     auth.requestMatchers(HttpMethod.GET, this.baseUrl + "/users/**").hasAuthority("ROLE_user");
                     auth.requestMatchers(HttpMethod.POST, this.baseUrl + "/users").hasAuthority("ROLE_admin");
                     auth.requestMatchers(HttpMethod.POST, this.baseUrl + "/users/reset").hasAuthority("ROLE_user");
@@ -78,13 +87,16 @@ public class SecurityConfiguration {
                 .headers(headers -> headers
                         .frameOptions(frameOptions -> frameOptions.sameOrigin()))
                 .csrf(csrf -> {
-                    csrf.ignoringRequestMatchers(toH2Console());
+                    if (this.h2ConsoleEnabled) {
+                        csrf.ignoringRequestMatchers(toH2Console());
+                    }
                     csrf.disable();
                 })
                 .cors(Customizer.withDefaults())
                 // .httpBasic(Customizer.withDefaults())
                 .httpBasic(httpBasic -> httpBasic.authenticationEntryPoint(this.customBasicAuthenticationEntryPoint))
-                .oauth2ResourceServer((oauth2) -> oauth2.jwt(Customizer.withDefaults())
+                .oauth2ResourceServer((oauth2) -> oauth2
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
                         .authenticationEntryPoint(this.customBearerTokenAuthenticationEntryPoint)
                         .accessDeniedHandler(this.customBearerTokenAccessDeniedHandler))
                 .sessionManagement(
@@ -93,25 +105,146 @@ public class SecurityConfiguration {
         return http.build();
     }
 
+    /**
+     * Hashing runs on a dedicated, bounded pool (see PasswordHashingService).
+     * A pool size of 0 means one thread per CPU.
+     * The algorithm and its cost come from PasswordEncoderFactory.
+     */
+    @Bean
+    public PasswordHashingService passwordEncoder(
+            @Value("${security.password.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password.hash-budget:50ms}") Duration hashBudget,
+            @Value("${security.password.minimum-cost:0}") int minimumCost,
+            @Value("${security.password.cost:0}") int fixedCost,
+            @Value("${security.password-hashing.pool-size:0}") int poolSize,
+            @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity,
+            ObservationRegistry observationRegistry) {
+        PasswordEncoder delegate = PasswordEncoderFactory.create(algorithm, hashBudget, minimumCost, fixedCost);
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashingService(delegate, threads, queueCapacity, observationRegistry);
+    }
+
+    /**
+     * Replaces the DaoAuthenticationProvider Spring Boot would otherwise build
+     * from UserService, so Basic Auth can use the principal and
+     * verified-credential caches.
+     */
+    @Bean
+    public UserAuthenticationProvider authenticationProvider(UserService userService,
+            PasswordEncoder passwordEncoder, ObjectProvider<UserPrincipalCache> userCache,
+            ObjectProvider<VerifiedCredentialCache> credentialCache, ObjectProvider<LoginAttemptTracker> loginAttempts) {
+        UserAuthenticationProvider provider = new UserAuthenticationProvider(credentialCache.getIfAvailable(),
+                loginAttempts.getIfAvailable());
+        UserPrincipalCache principals = userCache.getIfAvailable();
+        provider.setUserDetailsService(
+                principals != null ? new CachedUserDetailsService(userService, principals) : userService);
+        provider.setPasswordEncoder(passwordEncoder);
+        // Rehash stored passwords that use an older algorithm or a lower cost.
+        provider.setUserDetailsPasswordService(userService::upgradePassword);
+        return provider;
+    }
+
+    /**
+     * Token buckets for Basic Auth attempts: capacity attempts at once, then one
+     * more per refill-period, per client address and per username.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "security.login-rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public LoginRateLimiter loginRateLimiter(
+            @Value("${security.login-rate-limit.address.capacity:100}") long addressCapacity,
+            @Value("${security.login-rate-limit.address.refill-period:10ms}") Duration addressRefillPeriod,
+            @Value("${security.login-rate-limit.username.capacity:10}") long usernameCapacity,
+            @Value("${security.login-rate-limit.username.refill-period:1s}") Duration usernameRefillPeriod,
+            @Value("${security.login-rate-limit.maximum-size:100000}") long maximumSize) {
+        return new LoginRateLimiter(new TokenBuckets(addressCapacity, addressRefillPeriod, maximumSize),
+                new TokenBuckets(usernameCapacity, usernameRefillPeriod, maximumSize));
+    }
+
+    /**
+     * Locks an account for lock-duration after max-failures failed logins within
+     * window. Failures are counted in memory, see LoginAttemptTracker.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "security.lockout.enabled", havingValue = "true", matchIfMissing = true)
+    public LoginAttemptTracker loginAttemptTracker(UserService userService,
+            @Value("${security.lockout.max-failures:5}") int maxFailures,
+            @Value("${security.lockout.window:15m}") Duration window,
+            @Value("${security.lockout.lock-duration:15m}") Duration lockDuration,
+            @Value("${security.lockout.maximum-size:100000}") long maximumSize) {
+        return new LoginAttemptTracker(maxFailures, window, lockDuration, maximumSize, Clock.systemUTC(),
+                userService);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "security.user-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public UserPrincipalCache userPrincipalCache(
+            @Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.user-cache.ttl:5m}") Duration timeToLive) {
+        return new UserPrincipalCache(maximumSize, timeToLive);
+    }
+
+    /**
+     * Opt-in: set security.credential-cache.enabled=true to skip BCrypt for
+     * credentials verified within the last ttl.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "security.credential-cache.enabled", havingValue = "true")
+    public VerifiedCredentialCache verifiedCredentialCache(
+            @Value("${security.credential-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.credential-cache.ttl:5m}") Duration timeToLive) {
+        return new VerifiedCredentialCache(maximumSize, timeToLive);
+    }
+
+    /**
+     * Keys are kept in security.jwt.key-dir and rotated on a schedule, see
+     * JwtKeyStore. Leave the directory empty to keep keys in memory only.
+     */
+    @Bean
+    public JwtKeyStore jwtKeyStore(@Value("${security.jwt.algorithm:RS256}") String algorithm,
+            @Value("${security.jwt.key-dir:}") String keyDir,
+            @Value("${security.jwt.key-rotation-interval:7d}") Duration rotationInterval,
+            @Value("${security.jwt.key-retention:1d}") Duration retention) {
+        Path directory = keyDir.isBlank() ? null : Path.of(keyDir);
+        return new JwtKeyStore(directory, algorithm, rotationInterval, retention, Clock.systemUTC());
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public JwtEncoder jwtEncoder(JwtKeyStore jwtKeyStore) {
+        return jwtKeyStore.encoder();
     }
 
+    /**
+     * Revocations must outlive the tokens they cover, so they are kept for
+     * security.jwt.access-token-lifetime.
+     */
     @Bean
-    public JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(this.publicKey).privateKey(this.privateKey).build();
-        JWKSource<SecurityContext> jwkSet = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwkSet);
+    public TokenRevocationService tokenRevocationService(TokenRevocationRepository tokenRevocationRepository,
+            @Value("${security.jwt.access-token-lifetime:15m}") Duration tokenLifetime,
+            @Value("${security.jwt.revocation.expected-revocations:10000}") int expectedRevocations,
+            @Value("${security.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        return new TokenRevocationService(tokenRevocationRepository, tokenLifetime, expectedRevocations,
+                falsePositiveRate, Clock.systemUTC());
     }
 
+    /**
+     * Decoded tokens are cached until they expire (see CachingJwtDecoder), so
+     * reused tokens skip signature verification. The revocation check sits in
+     * front of the cache.
+     */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(this.publicKey).build();
+    public JwtDecoder jwtDecoder(JwtKeyStore jwtKeyStore, TokenRevocationService tokenRevocationService,
+            @Value("${security.jwt.decoder-cache.enabled:true}") boolean cacheEnabled,
+            @Value("${security.jwt.decoder-cache.maximum-size:10000}") long maximumSize) {
+        JwtDecoder decoder = jwtKeyStore.decoder();
+        if (cacheEnabled) {
+            decoder = new CachingJwtDecoder(decoder, maximumSize);
+        }
+        return new RevocationCheckingJwtDecoder(decoder, tokenRevocationService);
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public CachingJwtAuthenticationConverter jwtAuthenticationConverter(
+            @Value("${security.jwt.decoder-cache.maximum-size:10000}") long maximumSize) {
         JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
 
         /*
@@ -120,7 +253,7 @@ public class SecurityConfiguration {
          * In that case, you can configure the claim that JwtAuthenticationConverter
          * should inspect, like so:
          */
-        jwtGrantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
+        jwtGrantedAuthoritiesConverter.setAuthoritiesClaimName(JwtProvider.AUTHORITIES_CLAIM);
 
         /*
          * You can also configure the authority prefix to be different as well. The
@@ -129,9 +262,10 @@ public class SecurityConfiguration {
          */
         jwtGrantedAuthoritiesConverter.setAuthorityPrefix("");
 
-        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwtGrantedAuthoritiesConverter);
-        return jwtAuthenticationConverter;
+        // Works like JwtAuthenticationConverter, but builds the authorities of a
+        // token only once. The well-known roles come from the compact "rc" claim.
+        return new CachingJwtAuthenticationConverter(
+                new RoleCodeAuthoritiesConverter(jwtGrantedAuthoritiesConverter), maximumSize);
     }
 
 }
@@ -0,0 +1,92 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Token buckets keyed by a string, e.g. a client address or a username.
+ * <p>
+ * A bucket is a single AtomicLong holding the time at which it is full again
+ * (the GCRA form of a token bucket). Taking a token moves that time one refill
+ * period ahead and is refused when it would end up more than capacity periods
+ * ahead, so a bucket is updated with one compare-and-set and never locked.
+ * Buckets live in a bounded Caffeine cache and are dropped once idle long
+ * enough to be full again, so dropping one changes nothing.
+ */
+public class TokenBuckets {
+
+    private final long capacityNanos; // capacity * refillNanos
+
+    private final long refillNanos;
+
+    private final Ticker ticker;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBuckets(long capacity, Duration refillPeriod, long maximumSize) {
+        this(capacity, refillPeriod, maximumSize, Ticker.systemTicker());
+    }
+
+    TokenBuckets(long capacity, Duration refillPeriod, long maximumSize, Ticker ticker) {
+        if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("capacity and refill period must be positive");
+        }
+        this.refillNanos = refillPeriod.toNanos();
+        this.capacityNanos = Math.multiplyExact(capacity, this.refillNanos);
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofNanos(this.capacityNanos))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes a token from the key's bucket.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next
+     *         token is available
+     */
+    public long tryAcquire(String key) {
+        long now = this.ticker.read();
+        AtomicLong bucket = this.buckets.get(key, k -> new AtomicLong(now)); // A new bucket is full.
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt - now, 0L) + now + this.refillNanos;
+            long ahead = next - now;
+            if (ahead > this.capacityNanos) {
+                return ahead - this.capacityNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by tryAcquire, for an attempt that turned out not
+     * to count. A bucket is never filled past its capacity.
+     */
+    public void refund(String key) {
+        AtomicLong bucket = this.buckets.getIfPresent(key);
+        if (bucket == null) {
+            return; // Dropped buckets are full.
+        }
+        long now = this.ticker.read();
+        while (true) {
+            long fullAt = bucket.get();
+            if (fullAt - now <= 0L || bucket.compareAndSet(fullAt, Math.max(fullAt - this.refillNanos, now))) {
+                return;
+            }
+        }
+    }
+
+    public long getSize() {
+        return this.buckets.estimatedSize();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Revokes one token (jti set) or all tokens of a user issued up to revokedAt
+ * (userId and subject set). See TokenRevocationService.
+ */
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String jti;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    private String subject;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public static TokenRevocation ofToken(String jti, Instant revokedAt, Instant expiresAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.jti = jti;
+        revocation.revokedAt = revokedAt;
+        revocation.expiresAt = expiresAt;
+        return revocation;
+    }
+
+    public static TokenRevocation ofUser(Integer userId, String subject, Instant revokedAt, Instant expiresAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.userId = userId;
+        revocation.subject = subject;
+        revocation.revokedAt = revokedAt;
+        revocation.expiresAt = expiresAt;
+        return revocation;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    protected TokenRevocation() {
+    }
+
+}
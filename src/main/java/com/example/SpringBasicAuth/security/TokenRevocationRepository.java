@@ -0,0 +1,30 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    boolean existsByJti(String jti);
+
+    @Query("select max(r.revokedAt) from TokenRevocation r where r.userId = :userId")
+    Instant findLatestRevocation(@Param("userId") Integer userId);
+
+    // For tokens without a uid claim.
+    @Query("select max(r.revokedAt) from TokenRevocation r where r.subject = :subject")
+    Instant findLatestRevocation(@Param("subject") String subject);
+
+    List<TokenRevocation> findByExpiresAtAfter(Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+
+}
@@ -0,0 +1,160 @@
+package com.example.SpringBasicAuth.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserChangedEvent;
+
+/**
+ * Revoked bearer tokens. A token can be revoked on its own (by jti), or all
+ * tokens of a user issued so far can be revoked at once, which happens when the
+ * user is disabled, deleted or changes their password. Users are matched by the
+ * id in the token's uid claim, not by its subject, since a user can be renamed.
+ * Tokens minted before the uid claim existed are still matched by subject.
+ * <p>
+ * Revocations are stored in token_revocations and summarized in a Bloom filter
+ * of revoked jtis, user ids and subjects. Most tokens are not revoked, so most checks end
+ * at the filter without touching the database; only a possible match is looked
+ * up. The filter is rebuilt from the table every refresh-interval, which is
+ * also how revocations made by other instances arrive, and rows are deleted
+ * once every token they cover has expired.
+ * <p>
+ * iat only has second precision, so revoking a subject also revokes tokens
+ * issued in the same second, just after the revocation.
+ */
+public class TokenRevocationService {
+
+    private static final String JTI = "jti:";
+
+    private static final String USER = "uid:";
+
+    private static final String SUBJECT = "sub:";
+
+    private final TokenRevocationRepository repository;
+
+    private final Duration tokenLifetime;
+
+    private final int expectedRevocations;
+
+    private final double falsePositiveRate;
+
+    private final Clock clock;
+
+    private final Map<String, Instant> localRevocations = new ConcurrentHashMap<>(); // filter key -> expires at
+
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(TokenRevocationRepository repository, Duration tokenLifetime,
+            int expectedRevocations, double falsePositiveRate, Clock clock) {
+        this.repository = repository;
+        this.tokenLifetime = tokenLifetime;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        this.filter = this.loadFilter();
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        BloomFilter current = this.filter;
+        String jti = jwt.getId();
+        if (jti != null && current.mightContain(JTI + jti) && this.repository.existsByJti(jti)) {
+            return true;
+        }
+
+        Instant revokedAt;
+        if (jwt.getClaim(JwtProvider.USER_ID_CLAIM) instanceof Number userId) {
+            if (!current.mightContain(USER + userId.intValue())) {
+                return false;
+            }
+            revokedAt = this.repository.findLatestRevocation(userId.intValue());
+        } else {
+            String subject = User.toUsernameKey(jwt.getSubject());
+            if (subject == null || !current.mightContain(SUBJECT + subject)) {
+                return false;
+            }
+            revokedAt = this.repository.findLatestRevocation(subject);
+        }
+        Instant issuedAt = jwt.getIssuedAt();
+        return revokedAt != null
+                && (issuedAt == null || !issuedAt.isAfter(revokedAt.truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    public void revokeToken(String jti, Instant expiresAt) {
+        this.repository.save(TokenRevocation.ofToken(jti, this.clock.instant(), expiresAt));
+        this.remember(JTI + jti, expiresAt);
+    }
+
+    public void revokeUser(Integer userId, String username) {
+        Instant now = this.clock.instant();
+        Instant expiresAt = now.plus(this.tokenLifetime);
+        String subject = User.toUsernameKey(username);
+        this.repository.save(TokenRevocation.ofUser(userId, subject, now, expiresAt));
+        this.remember(USER + userId, expiresAt);
+        this.remember(SUBJECT + subject, expiresAt);
+    }
+
+    // Runs in the transaction that changed the user, so the revocation is stored
+    // with the change or not at all.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        switch (event.change()) {
+            case DISABLED, DELETED, PASSWORD_CHANGED -> this.revokeUser(event.id(), event.username());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Deletes expired rows and rebuilds the filter from the table, picking up
+     * revocations made by other instances.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.refresh-interval:PT30S}",
+            initialDelayString = "${security.jwt.revocation.refresh-interval:PT30S}")
+    public void refresh() {
+        Instant now = this.clock.instant();
+        this.repository.deleteExpired(now);
+        this.localRevocations.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        BloomFilter loaded = this.loadFilter();
+        this.filter = loaded;
+        // A revocation made while loading may have gone to the old filter.
+        this.localRevocations.keySet().forEach(loaded::put);
+    }
+
+    private void remember(String key, Instant expiresAt) {
+        this.localRevocations.put(key, expiresAt); // Before the filter, see refresh.
+        this.filter.put(key);
+    }
+
+    // Local revocations are added again, in case their rows were not committed
+    // yet when the table was read.
+    private BloomFilter loadFilter() {
+        List<TokenRevocation> revocations = this.repository.findByExpiresAtAfter(this.clock.instant());
+        int expected = Math.max(this.expectedRevocations, 2 * (revocations.size() + this.localRevocations.size()));
+        BloomFilter loaded = new BloomFilter(expected, this.falsePositiveRate);
+        for (TokenRevocation revocation : revocations) {
+            if (revocation.getJti() != null) {
+                loaded.put(JTI + revocation.getJti());
+            }
+            if (revocation.getUserId() != null) {
+                loaded.put(USER + revocation.getUserId());
+            }
+            if (revocation.getSubject() != null) {
+                loaded.put(SUBJECT + revocation.getSubject());
+            }
+        }
+        this.localRevocations.keySet().forEach(loaded::put);
+        return loaded;
+    }
+
+}
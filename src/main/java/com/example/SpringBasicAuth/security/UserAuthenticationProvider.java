@@ -0,0 +1,69 @@
+package com.example.SpringBasicAuth.security;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+
+/**
+ * The provider behind Basic Auth. Same as the default DaoAuthenticationProvider,
+ * but it can skip the password hash check for credentials that were verified
+ * recently (see VerifiedCredentialCache), and it rejects accounts locked by
+ * LoginAttemptTracker before the password is checked.
+ */
+public class UserAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final VerifiedCredentialCache credentialCache; // null when the cache is disabled
+
+    private final LoginAttemptTracker loginAttempts; // null when lockout is disabled
+
+    public UserAuthenticationProvider(VerifiedCredentialCache credentialCache, LoginAttemptTracker loginAttempts) {
+        this.credentialCache = credentialCache;
+        this.loginAttempts = loginAttempts;
+        if (loginAttempts != null) {
+            // Pre-authentication checks run after the user is loaded, before the password check.
+            UserDetailsChecker defaultChecks = this.getPreAuthenticationChecks();
+            this.setPreAuthenticationChecks(user -> {
+                if (loginAttempts.isLocked(user.getUsername())) {
+                    throw new LockedException("User account is locked");
+                }
+                defaultChecks.check(user);
+            });
+        }
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+            UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        try {
+            this.checkPassword(userDetails, authentication);
+        } catch (BadCredentialsException ex) {
+            if (this.loginAttempts != null) {
+                this.loginAttempts.recordFailure(userDetails.getUsername());
+            }
+            throw ex;
+        }
+        if (this.loginAttempts != null) {
+            this.loginAttempts.recordSuccess(userDetails.getUsername());
+        }
+    }
+
+    private void checkPassword(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) {
+        if (this.credentialCache == null || authentication.getCredentials() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        String presentedPassword = authentication.getCredentials().toString();
+        if (this.credentialCache.isVerified(userDetails, presentedPassword)) {
+            return;
+        }
+
+        super.additionalAuthenticationChecks(userDetails, authentication); // Throws if the password is wrong.
+        this.credentialCache.markVerified(userDetails, presentedPassword);
+    }
+
+}
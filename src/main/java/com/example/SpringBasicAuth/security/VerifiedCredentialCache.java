@@ -0,0 +1,97 @@
+package com.example.SpringBasicAuth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.SpringBasicAuth.user.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers credentials that recently passed the BCrypt check, so repeat Basic
+ * Auth requests can skip it.
+ * <p>
+ * Only an HMAC-SHA256 of the username, the stored hash and the presented
+ * password is kept, keyed with a secret that lives in this process only.
+ * Because the stored hash is part of the MAC, an entry stops matching as soon
+ * as the password changes, even before the change event arrives.
+ */
+public class VerifiedCredentialCache implements MeterBinder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec secret;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac); // Mac is not thread-safe.
+
+    private final Cache<String, byte[]> verified; // username -> MAC of the last verified password
+
+    public VerifiedCredentialCache(long maximumSize, Duration timeToLive) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, ALGORITHM);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isVerified(UserDetails user, String presentedPassword) {
+        byte[] expected = this.verified.getIfPresent(user.getUsername());
+        // Constant-time comparison, the MAC must not leak through timing.
+        return expected != null && MessageDigest.isEqual(expected, this.mac(user, presentedPassword));
+    }
+
+    public void markVerified(UserDetails user, String presentedPassword) {
+        this.verified.put(user.getUsername(), this.mac(user, presentedPassword));
+    }
+
+    public void invalidate(String username) {
+        this.verified.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        this.invalidate(event.username());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.verified, "credentials.verified");
+    }
+
+    private byte[] mac(UserDetails user, String presentedPassword) {
+        Mac mac = this.macs.get();
+        mac.update(user.getUsername().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(user.getPassword().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        // The password goes last, so no choice of password can collide with another hash.
+        return mac.doFinal(presentedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(this.secret);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, ex);
+        }
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.example.SpringBasicAuth.security.dto;
+
+public record RefreshTokenRequest(
+        String refreshToken) {
+}
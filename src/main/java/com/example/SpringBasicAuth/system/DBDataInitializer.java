@@ -1,14 +1,28 @@
 package com.example.SpringBasicAuth.system;
 
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 
+import com.example.SpringBasicAuth.system.exception.DuplicateUsernameException;
 import com.example.SpringBasicAuth.user.User;
 import com.example.SpringBasicAuth.user.UserService;
 
+/**
+ * Creates the demo users. Users that already exist are left alone, so this is
+ * safe to run against a persistent database and from several instances at once.
+ */
 @Component
+@ConditionalOnProperty(name = "users.seed.enabled", havingValue = "true", matchIfMissing = true)
 public class DBDataInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DBDataInitializer.class);
+
     private final UserService userService;
 
     public DBDataInitializer(UserService userService) {
@@ -18,29 +32,37 @@ public class DBDataInitializer implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         User u1 = new User();
-        u1.setId(1);
         u1.setUsername("john");
         u1.setPassword("123456");
         u1.setEnabled(true);
         u1.setRoles("admin user");
 
         User u2 = new User();
-        u2.setId(2);
         u2.setUsername("eric");
         u2.setPassword("654321");
         u2.setEnabled(true);
         u2.setRoles("user");
 
         User u3 = new User();
-        u3.setId(3);
         u3.setUsername("tom");
         u3.setPassword("qwerty");
         u3.setEnabled(false);
         u3.setRoles("user");
 
-        this.userService.save(u1);
-        this.userService.save(u2);
-        this.userService.save(u3);
+        List<User> missing = List.of(u1, u2, u3).stream()
+                .filter(user -> !this.userService.usernameExists(user.getUsername()))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Ids come from the sequence, in this order.
+            this.userService.saveAll(missing);
+        } catch (DuplicateUsernameException | DataAccessException ex) {
+            // Another instance seeded the same users concurrently.
+            logger.info("Demo users were created by another instance: {}", ex.getMessage());
+        }
     }
 
 }
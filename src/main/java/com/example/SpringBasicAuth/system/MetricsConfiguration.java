@@ -0,0 +1,54 @@
+package com.example.SpringBasicAuth.system;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+
+/**
+ * Meters are published at /actuator/prometheus. Beans with their own meters
+ * (PasswordHashingService, the caches) implement MeterBinder; percentile
+ * histograms are switched on per meter in application.properties.
+ * <p>
+ * Observations (Spring Security's filter chain and authentication, @Observed
+ * methods, JDBC, password hashing, JWT signing) also become trace spans,
+ * exported over OTLP; see management.tracing.* and management.otlp.*.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Makes @Timed work on Spring beans (UserService, JwtProvider).
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Makes @Observed work on Spring beans (UserService#loadUserByUsername).
+     */
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry registry) {
+        return new ObservedAspect(registry);
+    }
+
+    /**
+     * The decoder bean is declared as a JwtDecoder, so Spring Boot does not
+     * find the cache's MeterBinder by type.
+     */
+    @Bean
+    public MeterBinder jwtDecoderMetrics(JwtDecoder jwtDecoder) {
+        return registry -> {
+            if (jwtDecoder instanceof MeterBinder binder) {
+                binder.bindTo(registry);
+            }
+        };
+    }
+
+}
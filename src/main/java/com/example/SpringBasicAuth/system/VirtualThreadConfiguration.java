@@ -0,0 +1,53 @@
+package com.example.SpringBasicAuth.system;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Opt-in (spring.threads.virtual.enabled=true): servlet requests, @Async work
+ * and async MVC responses run on virtual threads, so requests waiting on the
+ * database no longer hold one of Tomcat's 200 platform threads.
+ * <p>
+ * Password hashing stays on the bounded platform-thread pool of
+ * PasswordHashingService; a virtual thread waiting for a hash just parks. CPU
+ * work on the small carrier pool would stall every other virtual thread.
+ * <p>
+ * Spring Boot 3.2 reads the same property; drop this class when upgrading.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * Shared by Tomcat and the applicationTaskExecutor. A bean, so the context
+     * closes it on shutdown (waiting for running tasks); Tomcat does not shut
+     * down an executor it was handed.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Replaces Spring Boot's pooled applicationTaskExecutor, used by @Async and
+     * by StreamingResponseBody.
+     */
+    @Bean(name = { "applicationTaskExecutor", "taskExecutor" })
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.example.SpringBasicAuth.system.exception;
+
+public class DuplicateUsernameException extends RuntimeException {
+
+    public DuplicateUsernameException(String username) {
+        super("Username " + username + " is already taken");
+    }
+
+}
@@ -3,7 +3,10 @@ package com.example.SpringBasicAuth.system.exception;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,15 +21,41 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @RestControllerAdvice
 public class ExceptionHandlerAdvice {
 
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<ErrorKey, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    public ExceptionHandlerAdvice(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(ObjectNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     ResponseEntity<String> handleObjectNotFoundException(ObjectNotFoundException ex) {
+        this.count(ex, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(DuplicateUsernameException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    ResponseEntity<String> handleDuplicateUsernameException(DuplicateUsernameException ex) {
+        this.count(ex, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    ResponseEntity<String> handleInvalidRequestException(InvalidRequestException ex) {
+        this.count(ex, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * This handles invalid inputs.
      *
@@ -36,6 +65,7 @@ public class ExceptionHandlerAdvice {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     ResponseEntity<?> handleValidationException(MethodArgumentNotValidException ex) {
+        this.count(ex, HttpStatus.BAD_REQUEST);
         List<ObjectError> errors = ex.getBindingResult().getAllErrors();
         Map<String, String> map = new HashMap<>(errors.size());
         errors.forEach((error) -> {
@@ -49,24 +79,60 @@ public class ExceptionHandlerAdvice {
     @ExceptionHandler({ UsernameNotFoundException.class, BadCredentialsException.class })
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     ResponseEntity<String> handleAuthenticationException(Exception ex) {
+        this.count(ex, HttpStatus.UNAUTHORIZED);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    ResponseEntity<String> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        this.count(ex, HttpStatus.UNAUTHORIZED);
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNAUTHORIZED);
     }
 
     @ExceptionHandler(AccountStatusException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     ResponseEntity<String> handleAccountStatusException(AccountStatusException ex) {
+        this.count(ex, HttpStatus.UNAUTHORIZED);
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNAUTHORIZED);
     }
 
+    /**
+     * The password hashing pool is full. Ask the client to retry shortly instead
+     * of queueing more BCrypt work.
+     *
+     * @param ex
+     * @return
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    ResponseEntity<String> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+        this.count(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(ex.getMessage(), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(LoginRateLimitedException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    ResponseEntity<String> handleLoginRateLimitedException(LoginRateLimitedException ex) {
+        this.count(ex, HttpStatus.TOO_MANY_REQUESTS);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return new ResponseEntity<>(ex.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     @ExceptionHandler(InvalidBearerTokenException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     ResponseEntity<String> handleInvalidBearerTokenException(InvalidBearerTokenException ex) {
+        this.count(ex, HttpStatus.UNAUTHORIZED);
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNAUTHORIZED);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     ResponseEntity<String> handleAccessDeniedException(AccessDeniedException ex) {
+        this.count(ex, HttpStatus.FORBIDDEN);
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.FORBIDDEN);
     }
 
@@ -86,7 +152,22 @@ public class ExceptionHandlerAdvice {
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     ResponseEntity<String> handleOtherException(Exception ex) {
+        this.count(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-}
\ No newline at end of file
+    // Handled exceptions do not show up in the exception tag of
+    // http.server.requests, so count them here.
+    private void count(Exception ex, HttpStatus status) {
+        this.errorCounters.computeIfAbsent(new ErrorKey(ex.getClass(), status), key -> Counter.builder("api.errors")
+                .description("Exceptions turned into error responses")
+                .tag("exception", key.exception().getSimpleName())
+                .tag("status", String.valueOf(key.status().value()))
+                .register(this.meterRegistry))
+                .increment();
+    }
+
+    private record ErrorKey(Class<?> exception, HttpStatus status) {
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.example.SpringBasicAuth.system.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException() {
+        super("The refresh token is invalid or has expired");
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.example.SpringBasicAuth.system.exception;
+
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.SpringBasicAuth.system.exception;
+
+/**
+ * Thrown when a client or username has used up its login attempts (see
+ * LoginRateLimitFilter).
+ */
+public class LoginRateLimitedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(long retryAfterSeconds) {
+        super("Too many login attempts, try again in " + retryAfterSeconds + " seconds");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return this.retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.SpringBasicAuth.system.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing pool is saturated.
+ * It is an AuthenticationException so the Basic Auth filter hands it to the
+ * entry point instead of letting it escape as a 500.
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many password checks in progress, try again later");
+    }
+
+}
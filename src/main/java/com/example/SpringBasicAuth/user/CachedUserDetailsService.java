@@ -0,0 +1,27 @@
+package com.example.SpringBasicAuth.user;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Serves principals from a UserPrincipalCache and falls back to the wrapped
+ * service (normally UserService) on a miss. Unknown usernames are not cached.
+ */
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+
+    private final UserPrincipalCache userCache;
+
+    public CachedUserDetailsService(UserDetailsService delegate, UserPrincipalCache userCache) {
+        this.delegate = delegate;
+        this.userCache = userCache;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return this.userCache.get(username, this.delegate::loadUserByUsername);
+    }
+
+}
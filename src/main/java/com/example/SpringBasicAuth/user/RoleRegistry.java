@@ -0,0 +1,152 @@
+package com.example.SpringBasicAuth.user;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.StringUtils;
+
+/**
+ * Global registry of role authorities.
+ * <p>
+ * Every role name maps to one shared SimpleGrantedAuthority, and every distinct
+ * User.roles string is tokenized once into a shared RoleSet. Principals hold
+ * the RoleSet, so getAuthorities() and the authorization checks in the filter
+ * chain allocate nothing.
+ * <p>
+ * The well-known roles have a fixed bit in RoleSet#wellKnownMask. The mask is
+ * also written into access tokens (JwtProvider's "rc" claim), so only append to
+ * that list, never reorder it.
+ */
+public final class RoleRegistry {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private static final List<String> WELL_KNOWN_ROLES = List.of("admin", "user");
+
+    // Roles strings are few (one per combination of roles), but they come from
+    // user input, so stop caching new ones past this size. Role names come from
+    // the same strings and are capped the same way.
+    private static final int MAX_CACHED_ROLE_SETS = 1024;
+
+    private static final int MAX_CACHED_AUTHORITIES = 1024;
+
+    private static final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, RoleSet> roleSets = new ConcurrentHashMap<>();
+
+    private static final List<GrantedAuthority> WELL_KNOWN_AUTHORITIES = WELL_KNOWN_ROLES.stream()
+            .map(RoleRegistry::authority)
+            .toList();
+
+    // The authorities of every well-known mask, indexed by the mask.
+    private static final List<List<GrantedAuthority>> MASK_AUTHORITIES = maskAuthorities();
+
+    private RoleRegistry() {
+    }
+
+    /**
+     * Parses a space-delimited roles string, e.g. "admin user".
+     */
+    public static RoleSet parse(String roles) {
+        if (roles == null || roles.isBlank()) {
+            return RoleSet.EMPTY;
+        }
+        RoleSet roleSet = roleSets.get(roles);
+        if (roleSet != null) {
+            return roleSet;
+        }
+        roleSet = tokenize(roles);
+        if (roleSets.size() < MAX_CACHED_ROLE_SETS) {
+            roleSets.putIfAbsent(roles, roleSet);
+        }
+        return roleSet;
+    }
+
+    /**
+     * The shared authority for a role name without the ROLE_ prefix.
+     */
+    public static GrantedAuthority authority(String role) {
+        GrantedAuthority authority = authorities.get(role);
+        if (authority != null) {
+            return authority;
+        }
+        if (authorities.size() >= MAX_CACHED_AUTHORITIES) {
+            return new SimpleGrantedAuthority(ROLE_PREFIX + role);
+        }
+        return authorities.computeIfAbsent(role, name -> new SimpleGrantedAuthority(ROLE_PREFIX + name));
+    }
+
+    static int cachedAuthorities() {
+        return authorities.size();
+    }
+
+    /**
+     * The bit of a well-known role, or -1.
+     */
+    public static int wellKnownBit(String role) {
+        return WELL_KNOWN_ROLES.indexOf(role);
+    }
+
+    /**
+     * The bit of a well-known role authority (ROLE_-prefixed), or -1.
+     */
+    public static int wellKnownBit(GrantedAuthority authority) {
+        for (int bit = 0; bit < WELL_KNOWN_AUTHORITIES.size(); bit++) {
+            GrantedAuthority wellKnown = WELL_KNOWN_AUTHORITIES.get(bit);
+            if (wellKnown == authority || wellKnown.getAuthority().equals(authority.getAuthority())) {
+                return bit;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The shared, immutable authorities for a mask of well-known role bits. Bits
+     * this version does not know are ignored.
+     */
+    public static List<GrantedAuthority> wellKnownAuthorities(long mask) {
+        return MASK_AUTHORITIES.get((int) (mask & (MASK_AUTHORITIES.size() - 1)));
+    }
+
+    public static List<String> wellKnownRoles() {
+        return WELL_KNOWN_ROLES;
+    }
+
+    private static List<List<GrantedAuthority>> maskAuthorities() {
+        int masks = 1 << WELL_KNOWN_AUTHORITIES.size();
+        List<List<GrantedAuthority>> maskAuthorities = new ArrayList<>(masks);
+        for (int mask = 0; mask < masks; mask++) {
+            List<GrantedAuthority> mapped = new ArrayList<>();
+            for (int bit = 0; bit < WELL_KNOWN_AUTHORITIES.size(); bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    mapped.add(WELL_KNOWN_AUTHORITIES.get(bit));
+                }
+            }
+            maskAuthorities.add(List.copyOf(mapped));
+        }
+        return List.copyOf(maskAuthorities);
+    }
+
+    private static RoleSet tokenize(String roles) {
+        String[] names = StringUtils.tokenizeToStringArray(roles, " ");
+        List<GrantedAuthority> roleAuthorities = new ArrayList<>(names.length);
+        long mask = 0L;
+        for (String name : names) {
+            GrantedAuthority authority = authority(name);
+            if (roleAuthorities.contains(authority)) {
+                continue;
+            }
+            roleAuthorities.add(authority);
+            int bit = wellKnownBit(name);
+            if (bit >= 0) {
+                mask |= 1L << bit;
+            }
+        }
+        return new RoleSet(mask, List.copyOf(roleAuthorities));
+    }
+
+}
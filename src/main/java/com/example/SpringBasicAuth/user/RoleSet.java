@@ -0,0 +1,24 @@
+package com.example.SpringBasicAuth.user;
+
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * The parsed roles of a user. Instances come from RoleRegistry and are shared
+ * between every principal with the same roles string.
+ *
+ * @param wellKnownMask one bit per well-known role, see RoleRegistry
+ * @param authorities   immutable, ROLE_-prefixed authorities in declaration order
+ */
+public record RoleSet(
+        long wellKnownMask,
+        List<GrantedAuthority> authorities) {
+
+    public static final RoleSet EMPTY = new RoleSet(0L, List.of());
+
+    public boolean hasWellKnownRole(int bit) {
+        return (this.wellKnownMask & (1L << bit)) != 0;
+    }
+
+}
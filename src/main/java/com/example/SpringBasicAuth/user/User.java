@@ -1,24 +1,45 @@
 package com.example.SpringBasicAuth.user;
 
+import java.time.Instant;
+import java.util.Locale;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "users") // Have to add - user is reserved name
+@Table(name = "users", // Have to add - user is reserved name
+        indexes = @Index(name = "ux_users_username_key", columnList = "username_key", unique = true))
 public class User {
 
+    // The schema is managed by Flyway, see db/migration. The allocation size is
+    // overridden by the sequence increment, see R__user_id_allocation_size.sql.
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Integer id;
 
+    @Column(nullable = false)
     private String username;
+
+    // Lower-cased copy of username, used for case-insensitive lookups and the
+    // unique index. Set by setUsername, never exposed.
+    @Column(name = "username_key", nullable = false)
+    private String usernameKey;
+
     private String password;
     private String roles;
     private boolean enabled;
 
+    // Set when too many logins failed, see LoginAttemptTracker.
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
     public Integer getId() {
         return id;
     }
@@ -33,6 +54,7 @@ public class User {
 
     public void setUsername(String username) {
         this.username = username;
+        this.usernameKey = toUsernameKey(username);
     }
 
     public String getPassword() {
@@ -59,9 +81,17 @@ public class User {
         this.enabled = enabled;
     }
 
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
     public User(Integer id, String username, String password, String roles, boolean enabled) {
         this.id = id;
-        this.username = username;
+        this.setUsername(username);
         this.password = password;
         this.roles = roles;
         this.enabled = enabled;
@@ -70,4 +100,11 @@ public class User {
     public User() {
     }
 
+    /**
+     * The normalized form usernames are compared in.
+     */
+    public static String toUsernameKey(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
 }
@@ -0,0 +1,22 @@
+package com.example.SpringBasicAuth.user;
+
+/**
+ * Published by UserService whenever a stored user changes, so anything that
+ * keeps user state in memory (verified credentials, principals, tokens) can
+ * drop it.
+ * The username is the one the user had before the change.
+ */
+public record UserChangedEvent(
+        Integer id,
+        String username,
+        Change change) {
+
+    public enum Change {
+        UPDATED,
+        DISABLED,
+        PASSWORD_CHANGED,
+        PASSWORD_REHASHED,
+        DELETED
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.example.SpringBasicAuth.user;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,12 +16,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.SpringBasicAuth.ChangePasswordRequest.ChangePasswordRequest;
+import com.example.SpringBasicAuth.system.exception.InvalidRequestException;
 import com.example.SpringBasicAuth.user.converter.UserDtoToUserConverter;
 import com.example.SpringBasicAuth.user.converter.UserToUserDtoConverter;
 import com.example.SpringBasicAuth.user.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 @RestController
 @RequestMapping("${api.endpoint.base-url}/users")
@@ -30,31 +38,101 @@ public class UserController {
 
     private final UserToUserDtoConverter userToUserDtoConverter; // Convert user to userDto.
 
+    private final ObjectWriter userDtoWriter; // Writes one NDJSON line.
+
     public UserController(UserService userService, UserDtoToUserConverter userDtoToUserConverter,
-            UserToUserDtoConverter userToUserDtoConverter) {
+            UserToUserDtoConverter userToUserDtoConverter, ObjectMapper objectMapper) {
         this.userService = userService;
         this.userDtoToUserConverter = userDtoToUserConverter;
         this.userToUserDtoConverter = userToUserDtoConverter;
+        this.userDtoWriter = objectMapper.writerFor(UserDto.class);
     }
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Without parameters this returns every user, as it always did.
+     * With limit, after or sort it returns one page, using keyset pagination:
+     * pass the X-Next-Cursor header of a page as the after parameter of the
+     * next one. The header is missing on the last page.
+     *
+     * @param limit page size, 100 by default, at most 1000
+     * @param after cursor: the last id or username of the previous page
+     * @param sort  id (default) or username
+     * @return
+     */
     @GetMapping
-    public List<UserDto> findAllUsers() {
-        List<User> foundUsers = this.userService.findAll();
+    public ResponseEntity<List<UserDto>> findAllUsers(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after, @RequestParam(required = false) String sort) {
+        if (limit == null && after == null && sort == null) {
+            // Read as UserDtos directly. Note that UserDto does not contain password field.
+            return new ResponseEntity<>(this.userService.findAllDtos(), HttpStatus.OK);
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<UserDto> page;
+        String nextCursor = null;
+        if (sort == null || sort.equals("id")) {
+            page = this.userService.findPageOrderById(parseIdCursor(after), pageSize);
+            if (page.size() == pageSize) {
+                nextCursor = page.get(page.size() - 1).id().toString();
+            }
+        } else if (sort.equals("username")) {
+            page = this.userService.findPageOrderByUsername(after == null ? "" : after, pageSize);
+            if (page.size() == pageSize) {
+                nextCursor = page.get(page.size() - 1).username();
+            }
+        } else {
+            throw new InvalidRequestException("sort must be id or username");
+        }
 
-        // Convert foundUsers to a list of UserDtos.
-        List<UserDto> userDtos = foundUsers.stream()
-                .map(this.userToUserDtoConverter::convert)
-                .collect(Collectors.toList());
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.set("X-Next-Cursor", nextCursor);
+        }
+        return new ResponseEntity<>(page, headers, HttpStatus.OK);
+    }
 
-        // Note that UserDto does not contain password field.
-        return userDtos;
+    /**
+     * Streams every user as newline-delimited JSON, in id order.
+     * Rows are written as the database returns them, so memory use does not
+     * depend on the number of users.
+     *
+     * @return
+     */
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> this.userService.streamAll(userDto -> {
+            try {
+                outputStream.write(this.userDtoWriter.writeValueAsBytes(userDto));
+                outputStream.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static Integer parseIdCursor(String after) {
+        if (after == null) {
+            return 0; // Ids start at 1.
+        }
+        try {
+            return Integer.valueOf(after);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("after must be a user id when sorting by id");
+        }
     }
 
     @GetMapping("/{id}")
     public UserDto findUserById(@PathVariable Integer id) {
-        User foundUser = this.userService.findById(id);
-        UserDto userDto = this.userToUserDtoConverter.convert(foundUser);
-        return userDto;
+        return this.userService.findDtoById(id);
     }
 
     /**
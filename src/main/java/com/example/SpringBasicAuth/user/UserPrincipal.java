@@ -1,32 +1,32 @@
 package com.example.SpringBasicAuth.user;
 
-import java.util.Arrays;
+import java.time.Instant;
 import java.util.Collection;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.util.StringUtils;
 
 // Principal refers to a logged in user
 public class UserPrincipal implements UserDetails {
 
     private User user;
 
+    private RoleSet roles = RoleSet.EMPTY;
+
     public User getUser() {
         return user;
     }
 
+    public RoleSet getRoles() {
+        return roles;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Convert a user's roles from space-delimited string to a list of
-        // SimpleGrantedAuthority objects.
-        // E.g., john's roles are stored in a string like "admin user moderator", we
-        // need to convert it to a list of GrantedAuthority.
-        // Before conversion, we need to add this "ROLE_" prefix to each role name.
-        return Arrays.stream(StringUtils.tokenizeToStringArray(this.user.getRoles(), " "))
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                .toList();
+        // A user's roles are stored as a space-delimited string, e.g. "admin user
+        // moderator". They are parsed once, when the principal is created, into
+        // shared "ROLE_"-prefixed authorities (see RoleRegistry).
+        return this.roles.authorities();
     }
 
     @Override
@@ -46,7 +46,8 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        Instant lockedUntil = this.user.getLockedUntil();
+        return lockedUntil == null || !lockedUntil.isAfter(Instant.now());
     }
 
     @Override
@@ -61,6 +62,7 @@ public class UserPrincipal implements UserDetails {
 
     public UserPrincipal(User user) {
         this.user = user;
+        this.roles = RoleRegistry.parse(user.getRoles());
     }
 
     public UserPrincipal() {
@@ -0,0 +1,80 @@
+package com.example.SpringBasicAuth.user;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, TTL-evicted cache of loaded principals (Caffeine, W-TinyLFU
+ * eviction), so Basic Auth does not query the users table on every request.
+ * Entries are dropped as soon as UserService commits a change to the user.
+ * Keys are normalized like usernames are in the database (User#toUsernameKey).
+ */
+public class UserPrincipalCache implements UserCache, MeterBinder {
+
+    private final Cache<String, UserDetails> principals;
+
+    public UserPrincipalCache(long maximumSize, Duration timeToLive) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached principal or loads it. The load is atomic per username,
+     * so an invalidation that arrives while loading also removes what was loaded.
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return this.principals.get(User.toUsernameKey(username), key -> loader.apply(username));
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return this.principals.getIfPresent(User.toUsernameKey(username));
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        this.principals.put(User.toUsernameKey(user.getUsername()), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        this.principals.invalidate(User.toUsernameKey(username));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        this.removeUserFromCache(event.username());
+    }
+
+    /**
+     * Hit, miss and eviction counts since startup.
+     */
+    public CacheStats getStats() {
+        return this.principals.stats();
+    }
+
+    public long getSize() {
+        return this.principals.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.principals, "users.principals");
+    }
+
+}
@@ -1,9 +1,70 @@
 package com.example.SpringBasicAuth.user;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.example.SpringBasicAuth.user.dto.UserDto;
+
+import jakarta.persistence.QueryHint;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
-    Optional<User> findByUsername(String username);
+    Optional<User> findByUsernameKey(String usernameKey);
+
+    boolean existsByUsernameKey(String usernameKey);
+
+    boolean existsByUsernameKeyAndIdNot(String usernameKey, Integer id);
+
+    @Query("select u.usernameKey from User u where u.usernameKey in :usernameKeys")
+    List<String> findExistingUsernameKeys(@Param("usernameKeys") Collection<String> usernameKeys);
+
+    @Modifying
+    @Query("update User u set u.lockedUntil = :lockedUntil where u.usernameKey in :usernameKeys")
+    int lockUntil(@Param("usernameKeys") Collection<String> usernameKeys, @Param("lockedUntil") Instant lockedUntil);
+
+    /**
+     * Case-insensitive lookup, served by the unique index on username_key.
+     */
+    default Optional<User> findByUsername(String username) {
+        return this.findByUsernameKey(User.toUsernameKey(username));
+    }
+
+    // Read paths select straight into UserDto: no managed entities, no dirty
+    // checking and the password hash never leaves the database.
+
+    @Query("select new com.example.SpringBasicAuth.user.dto.UserDto(u.id, u.username, u.roles, u.enabled) "
+            + "from User u order by u.id")
+    List<UserDto> findAllDtos();
+
+    @Query("select new com.example.SpringBasicAuth.user.dto.UserDto(u.id, u.username, u.roles, u.enabled) "
+            + "from User u where u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Integer id);
+
+    // Keyset pagination: the page starts right after the cursor, so every page
+    // is an index range scan no matter how deep it is. Pass Pageable.ofSize(limit).
+
+    @Query("select new com.example.SpringBasicAuth.user.dto.UserDto(u.id, u.username, u.roles, u.enabled) "
+            + "from User u where u.id > :after order by u.id")
+    List<UserDto> findPageOrderById(@Param("after") Integer after, Pageable pageable);
+
+    @Query("select new com.example.SpringBasicAuth.user.dto.UserDto(u.id, u.username, u.roles, u.enabled) "
+            + "from User u where u.usernameKey > :after order by u.usernameKey")
+    List<UserDto> findPageOrderByUsernameKey(@Param("after") String after, Pageable pageable);
+
+    // Rows are read in chunks of the fetch size and are never managed entities,
+    // so memory stays constant. Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.SpringBasicAuth.user.dto.UserDto(u.id, u.username, u.roles, u.enabled) "
+            + "from User u order by u.id")
+    Stream<UserDto> streamAllOrderById();
 }
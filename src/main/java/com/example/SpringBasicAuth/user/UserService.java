@@ -1,74 +1,210 @@
 package com.example.SpringBasicAuth.user;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.SpringBasicAuth.security.PasswordHashingService;
+import com.example.SpringBasicAuth.system.exception.DuplicateUsernameException;
 import com.example.SpringBasicAuth.system.exception.ObjectNotFoundException;
+import com.example.SpringBasicAuth.user.dto.UserDto;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.observation.annotation.Observed;
 
+/**
+ * Every public method is timed as users.service (tagged with the method name),
+ * so query and hashing costs show up per operation.
+ */
 @Service
 @Transactional
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordEncoder;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final ApplicationEventPublisher eventPublisher; // Tells caches a user has changed.
+
+    public UserService(UserRepository userRepository, PasswordHashingService passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Timed("users.service")
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return this.userRepository.findAll();
     }
 
+    @Timed("users.service")
+    @Transactional(readOnly = true)
+    public List<UserDto> findAllDtos() {
+        return this.userRepository.findAllDtos();
+    }
+
+    @Timed("users.service")
+    @Transactional(readOnly = true)
+    public List<UserDto> findPageOrderById(Integer after, int limit) {
+        return this.userRepository.findPageOrderById(after, Pageable.ofSize(limit));
+    }
+
+    @Timed("users.service")
+    @Transactional(readOnly = true)
+    public List<UserDto> findPageOrderByUsername(String after, int limit) {
+        return this.userRepository.findPageOrderByUsernameKey(User.toUsernameKey(after), Pageable.ofSize(limit));
+    }
+
+    /**
+     * Hands every user to the consumer, in id order, while reading them from the
+     * database. Nothing is collected in memory.
+     */
+    @Timed("users.service")
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = this.userRepository.streamAllOrderById()) {
+            users.forEach(consumer);
+        }
+    }
+
+    @Timed("users.service")
+    @Transactional(readOnly = true)
     public User findById(Integer id) {
         return this.userRepository.findById(id)
                 .orElseThrow(() -> new ObjectNotFoundException("user", id));
     }
 
+    @Timed("users.service")
+    @Transactional(readOnly = true)
+    public UserDto findDtoById(Integer id) {
+        return this.userRepository.findDtoById(id)
+                .orElseThrow(() -> new ObjectNotFoundException("user", id));
+    }
+
+    @Timed("users.service")
+    @Transactional(readOnly = true)
+    public boolean usernameExists(String username) {
+        return this.userRepository.existsByUsernameKey(User.toUsernameKey(username));
+    }
+
+    @Timed("users.service")
     public User save(User newUser) {
+        if (this.userRepository.existsByUsernameKey(User.toUsernameKey(newUser.getUsername()))) {
+            throw new DuplicateUsernameException(newUser.getUsername());
+        }
         newUser.setPassword(this.passwordEncoder.encode(newUser.getPassword()));
         return this.userRepository.save(newUser);
     }
 
+    /**
+     * Creates many users in one transaction. Passwords are hashed in parallel on
+     * the hashing pool and the rows are inserted in JDBC batches. Fails without
+     * saving anything if a username is taken.
+     * Callers importing large sets should call this once per chunk, so the
+     * persistence context stays small.
+     */
+    @Timed("users.service")
+    public List<User> saveAll(List<User> newUsers) {
+        Map<String, String> usernamesByKey = new HashMap<>();
+        for (User newUser : newUsers) {
+            if (usernamesByKey.putIfAbsent(User.toUsernameKey(newUser.getUsername()), newUser.getUsername()) != null) {
+                throw new DuplicateUsernameException(newUser.getUsername());
+            }
+        }
+        List<String> existing = this.userRepository.findExistingUsernameKeys(usernamesByKey.keySet());
+        if (!existing.isEmpty()) {
+            throw new DuplicateUsernameException(usernamesByKey.get(existing.get(0)));
+        }
+
+        List<String> encodedPasswords = this.passwordEncoder
+                .encodeAll(newUsers.stream().map(User::getPassword).toList());
+        for (int i = 0; i < newUsers.size(); i++) {
+            newUsers.get(i).setPassword(encodedPasswords.get(i));
+        }
+        return this.userRepository.saveAll(newUsers);
+    }
+
     /**
      * We are not using this update to change user password.
      */
+    @Timed("users.service")
     public User update(Integer id, User update) {
         User oldUser = this.userRepository.findById(id)
                 .orElseThrow(() -> new ObjectNotFoundException("user", id));
+        if (this.userRepository.existsByUsernameKeyAndIdNot(User.toUsernameKey(update.getUsername()), id)) {
+            throw new DuplicateUsernameException(update.getUsername());
+        }
+        this.publishChange(oldUser, UserChangedEvent.Change.UPDATED);
+        if (oldUser.isEnabled() && !update.isEnabled()) {
+            this.publishChange(oldUser, UserChangedEvent.Change.DISABLED);
+        }
         oldUser.setUsername(update.getUsername());
         oldUser.setEnabled(update.isEnabled());
         oldUser.setRoles(update.getRoles());
         return this.userRepository.save(oldUser);
     }
 
+    @Timed("users.service")
     public User updatePassword(UserPrincipal user, String newPassword) {
         User userInfo = user.getUser();
         User oldUser = this.userRepository.findById(userInfo.getId())
                 .orElseThrow(() -> new ObjectNotFoundException("user", userInfo.getId()));
         oldUser.setPassword(this.passwordEncoder.encode(newPassword));
+        this.publishChange(oldUser, UserChangedEvent.Change.PASSWORD_CHANGED);
         return this.userRepository.save(oldUser);
     }
 
+    /**
+     * Stores a password that was rehashed with the current algorithm and cost
+     * after a successful login. Used as the provider's UserDetailsPasswordService.
+     */
+    @Timed("users.service")
+    public UserDetails upgradePassword(UserDetails user, String encodedPassword) {
+        User storedUser = this.userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("username " + user.getUsername() + " is not found."));
+        storedUser.setPassword(encodedPassword);
+        this.publishChange(storedUser, UserChangedEvent.Change.PASSWORD_REHASHED);
+        return new UserPrincipal(this.userRepository.save(storedUser));
+    }
+
+    @Timed("users.service")
     public boolean oldPasswordIsValid(UserPrincipal user, String oldPassword) {
         return passwordEncoder.matches(oldPassword, user.getPassword());
     }
 
+    /**
+     * Stores the account locks taken by LoginAttemptTracker, in one update
+     * statement. Usernames that do not exist are ignored.
+     */
+    @Timed("users.service")
+    public int lockAccounts(Collection<String> usernameKeys, Instant lockedUntil) {
+        return this.userRepository.lockUntil(usernameKeys, lockedUntil);
+    }
+
+    @Timed("users.service")
     public void delete(Integer id) {
-        this.userRepository.findById(id)
+        User user = this.userRepository.findById(id)
                 .orElseThrow(() -> new ObjectNotFoundException("user", id));
+        this.publishChange(user, UserChangedEvent.Change.DELETED);
         this.userRepository.deleteById(id);
     }
 
+    @Timed("users.service")
+    @Observed(name = "users.load", contextualName = "load user")
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return this.userRepository.findByUsername(username)
@@ -76,4 +212,10 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("username " + username + " is not found."));
     }
 
+    // Listeners run after the transaction commits, so they never see a change
+    // that is later rolled back.
+    private void publishChange(User user, UserChangedEvent.Change change) {
+        this.eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername(), change));
+    }
+
 }
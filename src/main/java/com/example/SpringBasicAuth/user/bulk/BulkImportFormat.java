@@ -0,0 +1,25 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import org.springframework.http.MediaType;
+
+import com.example.SpringBasicAuth.system.exception.InvalidRequestException;
+
+public enum BulkImportFormat {
+
+    CSV,
+    NDJSON;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static BulkImportFormat of(MediaType contentType) {
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+            return CSV;
+        }
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return NDJSON;
+        }
+        throw new InvalidRequestException("Bulk import accepts " + TEXT_CSV_VALUE + " or "
+                + MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and outcome of a bulk import. Updated by the importing thread and
+ * read (serialized) by whoever polls the job, so all state is thread-safe.
+ * Only the first MAX_REPORTED_ERRORS failed rows are listed, the counts cover
+ * every row.
+ */
+public class BulkImportReport {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    public record RowError(
+            long line,
+            String username,
+            String message) {
+    }
+
+    private final String id;
+
+    private final Clock clock;
+
+    private final Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile String message;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public BulkImportReport(String id, Clock clock) {
+        this.id = id;
+        this.clock = clock;
+        this.startedAt = clock.instant();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getCreated() {
+        return created.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public List<RowError> getErrors() {
+        synchronized (this.errors) {
+            return List.copyOf(this.errors);
+        }
+    }
+
+    void rowRead() {
+        this.processed.incrementAndGet();
+    }
+
+    void rowsCreated(int count) {
+        this.created.addAndGet(count);
+    }
+
+    void rowFailed(BulkUserRow row, String error) {
+        this.failed.incrementAndGet();
+        synchronized (this.errors) {
+            if (this.errors.size() < MAX_REPORTED_ERRORS) {
+                this.errors.add(new RowError(row.line(), row.username(), error));
+            }
+        }
+    }
+
+    void complete() {
+        this.finishedAt = this.clock.instant();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        this.message = message;
+        this.finishedAt = this.clock.instant();
+        this.status = Status.FAILED;
+    }
+
+}
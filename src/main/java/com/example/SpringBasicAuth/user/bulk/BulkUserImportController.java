@@ -0,0 +1,95 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.SpringBasicAuth.system.exception.InvalidRequestException;
+import com.example.SpringBasicAuth.system.exception.ObjectNotFoundException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("${api.endpoint.base-url}/users/bulk")
+public class BulkUserImportController {
+
+    static final int MAX_BATCH_SIZE = 5000;
+
+    private final BulkUserImportService bulkUserImportService;
+
+    private final int defaultBatchSize;
+
+    public BulkUserImportController(BulkUserImportService bulkUserImportService,
+            @Value("${users.bulk-import.batch-size:500}") int defaultBatchSize) {
+        this.bulkUserImportService = bulkUserImportService;
+        this.defaultBatchSize = defaultBatchSize;
+    }
+
+    /**
+     * Creates users from a CSV (text/csv) or NDJSON (application/x-ndjson) body.
+     * The body is parsed while it is read.
+     * <p>
+     * By default the import runs within the request and the response is the
+     * per-row summary. With async=true the body is spooled to a temporary file,
+     * the import runs in the background and the response (202) is a job that can
+     * be polled at GET /users/bulk/{id}.
+     *
+     * @param request
+     * @param async     run in the background
+     * @param batchSize rows per transaction
+     * @return
+     * @throws IOException
+     */
+    @PostMapping(consumes = { BulkImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BulkImportReport> importUsers(HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestParam(required = false) Integer batchSize) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        BulkImportFormat format = BulkImportFormat.of(contentType);
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        int rowsPerBatch = batchSize == null ? this.defaultBatchSize : batchSize;
+        if (rowsPerBatch < 1 || rowsPerBatch > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("batchSize must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        if (!async) {
+            BulkImportReport report = this.bulkUserImportService.importUsers(request.getInputStream(), charset,
+                    format, rowsPerBatch);
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        }
+
+        Path file = Files.createTempFile("bulk-users-", ".import");
+        try (InputStream input = request.getInputStream()) {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        BulkImportReport job = this.bulkUserImportService.createJob();
+        this.bulkUserImportService.importFileAsync(job, file, charset, format, rowsPerBatch);
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{id}")
+    public BulkImportReport findJob(@PathVariable String id) {
+        return this.bulkUserImportService.findJob(id)
+                .orElseThrow(() -> new ObjectNotFoundException("bulk import job", id));
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.example.SpringBasicAuth.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports users from CSV or NDJSON, one batch at a time.
+ * <p>
+ * Each batch goes through UserService.saveAll: passwords are hashed in
+ * parallel and the batch is inserted in one transaction. When a batch fails
+ * (e.g. a taken username), its rows are retried one by one so only the bad
+ * rows are reported.
+ */
+@Service
+public class BulkUserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportService.class);
+
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final UserService userService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Clock clock;
+
+    private final Map<String, BulkImportReport> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BulkUserImportService(UserService userService, ObjectMapper objectMapper) {
+        this(userService, objectMapper, Clock.systemUTC());
+    }
+
+    BulkUserImportService(UserService userService, ObjectMapper objectMapper, Clock clock) {
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Imports while reading the input, and returns when it is done.
+     */
+    public BulkImportReport importUsers(InputStream input, Charset charset, BulkImportFormat format, int batchSize)
+            throws IOException {
+        BulkImportReport report = new BulkImportReport(null, this.clock);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+        this.run(new BulkUserRowReader(reader, format, this.objectMapper), batchSize, report);
+        report.complete();
+        return report;
+    }
+
+    /**
+     * Registers a job that can be polled with findJob.
+     */
+    public BulkImportReport createJob() {
+        Instant cutoff = this.clock.instant().minus(FINISHED_JOB_RETENTION);
+        this.jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+
+        BulkImportReport job = new BulkImportReport(UUID.randomUUID().toString(), this.clock);
+        this.jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public Optional<BulkImportReport> findJob(String id) {
+        return Optional.ofNullable(this.jobs.get(id));
+    }
+
+    /**
+     * Imports a spooled upload in the background, then deletes the file.
+     */
+    @Async
+    public void importFileAsync(BulkImportReport job, Path file, Charset charset, BulkImportFormat format,
+            int batchSize) {
+        try (BufferedReader reader = Files.newBufferedReader(file, charset)) {
+            this.run(new BulkUserRowReader(reader, format, this.objectMapper), batchSize, job);
+            job.complete();
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Bulk import {} failed", job.getId(), ex);
+            job.fail(ex.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                logger.warn("Could not delete bulk import file {}", file, ex);
+            }
+        }
+    }
+
+    private void run(BulkUserRowReader rows, int batchSize, BulkImportReport report) throws IOException {
+        List<BulkUserRow> batch = new ArrayList<>(batchSize);
+        BulkUserRow row;
+        while ((row = rows.next()) != null) {
+            report.rowRead();
+            if (row.error() != null) {
+                report.rowFailed(row, row.error());
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                this.saveBatch(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.saveBatch(batch, report);
+        }
+    }
+
+    private void saveBatch(List<BulkUserRow> batch, BulkImportReport report) {
+        try {
+            this.userService.saveAll(batch.stream().map(BulkUserRow::toUser).toList());
+            report.rowsCreated(batch.size());
+        } catch (RuntimeException batchFailure) {
+            // The whole batch was rolled back. Retry row by row to find the bad ones.
+            for (BulkUserRow row : batch) {
+                try {
+                    this.userService.save(row.toUser());
+                    report.rowsCreated(1);
+                } catch (RuntimeException ex) {
+                    report.rowFailed(row, ex.getMessage());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import com.example.SpringBasicAuth.user.User;
+
+/**
+ * One parsed line of a bulk import. Rows that could not be parsed carry an
+ * error instead of user data.
+ */
+public record BulkUserRow(
+        long line,
+        String username,
+        String password,
+        String roles,
+        boolean enabled,
+        String error) {
+
+    static BulkUserRow invalid(long line, String username, String error) {
+        return new BulkUserRow(line, username, null, null, false, error);
+    }
+
+    /**
+     * A new User with the raw password; built per attempt because saving hashes
+     * the password in place.
+     */
+    User toUser() {
+        return new User(null, this.username, this.password, this.roles, this.enabled);
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads bulk import rows one line at a time, so the input is never held in
+ * memory.
+ * <p>
+ * CSV needs a header line naming the columns username, password, roles and
+ * enabled (any order; roles and enabled may be left out). Fields may be quoted
+ * with double quotes, but cannot span lines. NDJSON is one JSON object per line
+ * with the same field names.
+ */
+class BulkUserRowReader {
+
+    private final BufferedReader reader;
+
+    private final BulkImportFormat format;
+
+    private final ObjectMapper objectMapper;
+
+    private long line;
+
+    private int usernameColumn = -1;
+
+    private int passwordColumn = -1;
+
+    private int rolesColumn = -1;
+
+    private int enabledColumn = -1;
+
+    BulkUserRowReader(BufferedReader reader, BulkImportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == BulkImportFormat.CSV) {
+            this.readCsvHeader();
+        }
+    }
+
+    /**
+     * @return the next row, or null at the end of the input
+     * @throws IOException
+     */
+    BulkUserRow next() throws IOException {
+        String text;
+        do {
+            text = this.reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            this.line++;
+        } while (text.isBlank());
+
+        BulkUserRow row = this.format == BulkImportFormat.CSV ? this.parseCsv(text) : this.parseNdjson(text);
+        if (row.error() == null && (!StringUtils.hasText(row.username()) || !StringUtils.hasText(row.password()))) {
+            return BulkUserRow.invalid(this.line, row.username(), "username and password are required");
+        }
+        return row;
+    }
+
+    private void readCsvHeader() throws IOException {
+        String header = this.reader.readLine();
+        this.line++;
+        if (header == null) {
+            return; // Empty input, nothing to import.
+        }
+        List<String> columns = splitCsv(header);
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "username" -> this.usernameColumn = i;
+                case "password" -> this.passwordColumn = i;
+                case "roles" -> this.rolesColumn = i;
+                case "enabled" -> this.enabledColumn = i;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private BulkUserRow parseCsv(String text) {
+        if (this.usernameColumn < 0 || this.passwordColumn < 0) {
+            return BulkUserRow.invalid(this.line, null, "CSV header must name the username and password columns");
+        }
+        List<String> fields = splitCsv(text);
+        String enabled = field(fields, this.enabledColumn);
+        return new BulkUserRow(this.line,
+                field(fields, this.usernameColumn),
+                field(fields, this.passwordColumn),
+                field(fields, this.rolesColumn),
+                enabled == null || enabled.isBlank() || Boolean.parseBoolean(enabled.trim()),
+                null);
+    }
+
+    private BulkUserRow parseNdjson(String text) {
+        try {
+            NdjsonUser user = this.objectMapper.readValue(text, NdjsonUser.class);
+            return new BulkUserRow(this.line, user.username(), user.password(), user.roles(),
+                    user.enabled() == null || user.enabled(), null);
+        } catch (JsonProcessingException ex) {
+            return BulkUserRow.invalid(this.line, null, "Invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"'); // Escaped quote.
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    record NdjsonUser(
+            String username,
+            String password,
+            String roles,
+            Boolean enabled) {
+    }
+
+}
@@ -0,0 +1,7 @@
+-- Sets the users_seq increment, which is the block of ids Hibernate's pooled
+-- optimizer reserves per sequence call (increment_size_mismatch_strategy=fix).
+-- A repeatable migration: Flyway runs it again whenever its checksum changes,
+-- and the checksum covers the substituted placeholder, so changing
+-- spring.flyway.placeholders[user_id_allocation_size] also takes effect on an
+-- existing database.
+alter sequence users_seq increment by ${user_id_allocation_size};
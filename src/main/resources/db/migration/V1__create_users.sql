@@ -0,0 +1,15 @@
+create sequence users_seq start with 1 increment by 50;
+
+create table users (
+    id integer not null,
+    username varchar(255) not null,
+    -- Lower-cased username, kept in sync by the User entity. Lookups and the
+    -- uniqueness check go through its index, so they are case-insensitive.
+    username_key varchar(255) not null,
+    password varchar(255),
+    roles varchar(255),
+    enabled boolean not null,
+    primary key (id)
+);
+
+create unique index ux_users_username_key on users (username_key);
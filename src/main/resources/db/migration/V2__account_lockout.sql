@@ -0,0 +1,3 @@
+-- Set by LoginAttemptTracker when an account sees too many failed logins in a
+-- row. The account is locked while this lies in the future.
+alter table users add column locked_until timestamp(6) with time zone;
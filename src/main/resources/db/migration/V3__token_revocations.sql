@@ -0,0 +1,21 @@
+-- Revoked bearer tokens, see TokenRevocationService. A row revokes either one
+-- token (jti) or every token of a user issued up to revoked_at (user_id).
+create table token_revocations (
+    id bigint generated by default as identity,
+    jti varchar(64),
+    -- The user id, which tokens carry in the uid claim, so renaming a user does
+    -- not take their tokens out of a revocation.
+    user_id integer,
+    -- Lower-cased username, like users.username_key. Matches tokens minted
+    -- without the uid claim.
+    subject varchar(255),
+    revoked_at timestamp(6) with time zone not null,
+    -- Every token the row covers has expired by then, so the row can go.
+    expires_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create index ix_token_revocations_jti on token_revocations (jti);
+create index ix_token_revocations_user_id on token_revocations (user_id);
+create index ix_token_revocations_subject on token_revocations (subject);
+create index ix_token_revocations_expires_at on token_revocations (expires_at);
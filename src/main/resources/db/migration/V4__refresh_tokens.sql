@@ -0,0 +1,23 @@
+-- Opaque refresh tokens, see RefreshTokenService. Only a hash of the token is
+-- stored, so a copy of the table cannot be used to get new access tokens.
+create table refresh_tokens (
+    id bigint generated by default as identity,
+    -- SHA-256 of the token, Base64url.
+    token_hash varchar(64) not null,
+    -- Every token rotated from the same login shares a family. Presenting a
+    -- rotated token again revokes the whole family.
+    family_id varchar(36) not null,
+    -- The user id, not the username: a user can be renamed, and a new account
+    -- could then take the old name. Deleting a user deletes its tokens.
+    user_id integer not null,
+    expires_at timestamp(6) with time zone not null,
+    -- Set when the token is rotated; kept until it expires to catch reuse.
+    used_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_refresh_tokens_user_id foreign key (user_id) references users (id) on delete cascade
+);
+
+create unique index ux_refresh_tokens_token_hash on refresh_tokens (token_hash);
+create index ix_refresh_tokens_family_id on refresh_tokens (family_id);
+create index ix_refresh_tokens_user_id on refresh_tokens (user_id);
+create index ix_refresh_tokens_expires_at on refresh_tokens (expires_at);
@@ -0,0 +1,74 @@
+package com.example.SpringBasicAuth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    @Test
+    @DisplayName("The Prometheus endpoint reports auth, user and hashing meters to admins")
+    void testPrometheusScrape() throws Exception {
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("john", "123456")))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("john", "wrong")))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(get(this.baseUrl + "/users/1").header(HttpHeaders.AUTHORIZATION, "Bearer invalid"))
+                .andExpect(status().isUnauthorized());
+
+        this.mockMvc.perform(get("/actuator/prometheus").with(httpBasic("john", "123456")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "auth_attempts_total{method=\"basic\",outcome=\"success\",reason=\"none\",}")))
+                .andExpect(content().string(containsString(
+                        "auth_attempts_total{method=\"basic\",outcome=\"failure\",reason=\"BadCredentialsException\",}")))
+                .andExpect(content().string(containsString(
+                        "auth_attempts_total{method=\"bearer\",outcome=\"failure\",reason=\"InvalidBearerTokenException\",}")))
+                .andExpect(content().string(containsString("api_errors_total{exception=\"BadCredentialsException\"")))
+                .andExpect(content().string(containsString("users_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("jwt_create_seconds_count")))
+                .andExpect(content().string(containsString("password_hashing_seconds_count")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"users.principals\"")));
+    }
+
+    @Test
+    @DisplayName("The Prometheus endpoint is closed to anonymous clients and non-admins")
+    void testPrometheusNeedsAdmin() throws Exception {
+        this.mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().is(not(200)))
+                .andExpect(content().string(not(containsString("auth_attempts_total"))));
+        this.mockMvc.perform(get("/actuator/prometheus").with(httpBasic("eric", "654321")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Health needs no credentials")
+    void testHealth() throws Exception {
+        this.mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+}
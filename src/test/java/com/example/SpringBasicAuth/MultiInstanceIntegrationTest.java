@@ -0,0 +1,153 @@
+package com.example.SpringBasicAuth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.example.SpringBasicAuth.user.UserService;
+
+/**
+ * Two application instances running the prod profile, sharing one file
+ * database (with AUTO_SERVER, as in the profile) and one key directory. Both
+ * run in this JVM, so this does not cover instances on other hosts, which
+ * the file database does not support. Seeding is opted into explicitly, as
+ * the prod profile turns it off.
+ */
+class MultiInstanceIntegrationTest {
+
+    @TempDir
+    static Path dataDir;
+
+    static ConfigurableApplicationContext instance1;
+
+    static ConfigurableApplicationContext instance2;
+
+    TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @BeforeAll
+    static void startInstances() {
+        String[] args = {
+                "--spring.profiles.active=prod",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("users") + ";AUTO_SERVER=TRUE",
+                "--security.jwt.key-dir=" + dataDir.resolve("jwt-keys"),
+                "--users.seed.enabled=true"
+        };
+        instance1 = new SpringApplicationBuilder(SpringBasicAuthApplication.class).run(args);
+        instance2 = new SpringApplicationBuilder(SpringBasicAuthApplication.class).run(args);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (instance2 != null) {
+            instance2.close();
+        }
+        if (instance1 != null) {
+            instance1.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Demo users are seeded once")
+    void testSeedingIsIdempotent() throws Exception {
+        String token = this.login(instance1, "john", "123456");
+
+        ResponseEntity<String> response = this.get(instance2, "/api/v1/users", token);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray users = new JSONArray(response.getBody());
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < users.length(); i++) {
+            usernames.add(users.getJSONObject(i).getString("username"));
+        }
+        assertThat(usernames).containsOnlyOnce("john", "eric", "tom");
+    }
+
+    @Test
+    @DisplayName("The prod profile seeds no users unless asked to")
+    void testProdProfileDoesNotSeedByDefault(@TempDir Path emptyDataDir) {
+        try (ConfigurableApplicationContext instance = new SpringApplicationBuilder(SpringBasicAuthApplication.class)
+                .run("--spring.profiles.active=prod",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:file:" + emptyDataDir.resolve("users") + ";AUTO_SERVER=TRUE",
+                        "--security.jwt.key-dir=" + emptyDataDir.resolve("jwt-keys"))) {
+            assertThat(instance.getBean(UserService.class).findAll()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("A token from one instance is accepted by the other")
+    void testTokenWorksOnBothInstances() throws Exception {
+        String token = this.login(instance2, "eric", "654321");
+
+        assertThat(this.get(instance1, "/api/v1/users/1", token).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(this.get(instance2, "/api/v1/users/1", token).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("A user added on one instance can log in on the other")
+    void testUserAddedOnOneInstanceLogsInOnTheOther() throws Exception {
+        String adminToken = this.login(instance1, "john", "123456");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(adminToken);
+        String user = "{\"username\":\"bobby\",\"password\":\"greenbay\",\"roles\":\"user\",\"enabled\":true}";
+
+        ResponseEntity<String> added = this.restTemplate.postForEntity(url(instance1, "/api/v1/users"),
+                new HttpEntity<>(user, headers), String.class);
+
+        assertThat(added.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(this.login(instance2, "bobby", "greenbay")).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("Both instances publish the same keys")
+    void testJwkSetIsShared() {
+        ResponseEntity<String> jwks1 = this.restTemplate.getForEntity(url(instance1, "/.well-known/jwks.json"),
+                String.class);
+        ResponseEntity<String> jwks2 = this.restTemplate.getForEntity(url(instance2, "/.well-known/jwks.json"),
+                String.class);
+
+        assertThat(jwks1.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jwks1.getBody()).isEqualTo(jwks2.getBody());
+    }
+
+    private String login(ConfigurableApplicationContext instance, String username, String password)
+            throws Exception {
+        ResponseEntity<String> response = this.restTemplate.withBasicAuth(username, password)
+                .postForEntity(url(instance, "/api/v1/users/login"), null, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return new JSONObject(response.getBody()).getString("token");
+    }
+
+    private ResponseEntity<String> get(ConfigurableApplicationContext instance, String path, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return this.restTemplate.exchange(url(instance, path), HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+    }
+
+    private static String url(ConfigurableApplicationContext instance, String path) {
+        return "http://localhost:" + instance.getEnvironment().getProperty("local.server.port") + path;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class CachingJwtDecoderTest {
+
+    JwtDecoder delegate;
+
+    CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        this.delegate = mock(JwtDecoder.class);
+        this.decoder = new CachingJwtDecoder(this.delegate, 100);
+    }
+
+    @Test
+    void testReusedTokenIsDecodedOnce() {
+        Jwt jwt = jwt("token", Instant.now().plusSeconds(60));
+        given(this.delegate.decode("token")).willReturn(jwt);
+
+        assertThat(this.decoder.decode("token")).isSameAs(jwt);
+        assertThat(this.decoder.decode("token")).isSameAs(jwt);
+
+        verify(this.delegate, times(1)).decode("token");
+    }
+
+    @Test
+    void testExpiredTokenIsDecodedAgain() {
+        Jwt jwt = jwt("token", Instant.now().minusSeconds(1));
+        given(this.delegate.decode("token")).willReturn(jwt);
+
+        this.decoder.decode("token");
+        this.decoder.decode("token");
+
+        verify(this.delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void testInvalidTokenIsNotCached() {
+        given(this.delegate.decode("bad")).willThrow(new BadJwtException("bad signature"));
+
+        assertThatThrownBy(() -> this.decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> this.decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+
+        verify(this.delegate, times(2)).decode("bad");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("john")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+
+class JwtKeyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new MutableClock(Instant.now());
+    }
+
+    @Test
+    void testKeysSurviveRestart() {
+        JwtKeyStore first = this.store("ES256");
+        String token = sign(first);
+
+        JwtKeyStore second = this.store("ES256");
+
+        assertThat(second.currentKey().getKeyId()).isEqualTo(first.currentKey().getKeyId());
+        assertThat(second.decoder().decode(token).getSubject()).isEqualTo("john");
+    }
+
+    @Test
+    void testRotatedKeyStillVerifiesUntilRetentionPasses() throws Exception {
+        JwtKeyStore store = this.store("ES256");
+        String oldKeyId = store.currentKey().getKeyId();
+        String token = sign(store);
+
+        this.clock.advance(Duration.ofDays(8));
+        store.refresh();
+
+        assertThat(store.currentKey().getKeyId()).isNotEqualTo(oldKeyId);
+        assertThat(store.decoder().decode(token).getSubject()).isEqualTo("john");
+        assertThat(store.getPublicJwkSet().getKeyByKeyId(oldKeyId)).isNotNull();
+
+        this.clock.advance(Duration.ofDays(2));
+        store.refresh();
+
+        assertThat(Files.exists(this.directory.resolve(oldKeyId + ".json"))).isFalse();
+        assertThatThrownBy(() -> store.decoder().decode(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void testCopiedKeyKeepsItsCreationTime() throws Exception {
+        String keyId = this.store("ES256").currentKey().getKeyId();
+        // A copy or restore gives the file a new modified time.
+        Path file = this.directory.resolve(keyId + ".json");
+        Files.setLastModifiedTime(file, FileTime.from(this.clock.instant().minus(Duration.ofDays(30))));
+
+        assertThat(this.store("ES256").currentKey().getKeyId()).isEqualTo(keyId);
+
+        Files.setLastModifiedTime(file, FileTime.from(this.clock.instant()));
+        this.clock.advance(Duration.ofDays(8));
+
+        assertThat(this.store("ES256").currentKey().getKeyId()).isNotEqualTo(keyId);
+    }
+
+    @Test
+    void testKeyWithoutIssueTimeFallsBackToModifiedTime() throws Exception {
+        JWK legacy = new ECKeyGenerator(Curve.P_256).keyID("legacy").algorithm(JWSAlgorithm.ES256).generate();
+        Path file = this.directory.resolve("legacy.json");
+        Files.writeString(file, legacy.toJSONString());
+        Files.setLastModifiedTime(file, FileTime.from(this.clock.instant().minus(Duration.ofDays(1))));
+
+        assertThat(this.store("ES256").currentKey().getKeyId()).isEqualTo("legacy");
+
+        Files.setLastModifiedTime(file, FileTime.from(this.clock.instant().minus(Duration.ofDays(8))));
+
+        assertThat(this.store("ES256").currentKey().getKeyId()).isNotEqualTo("legacy");
+    }
+
+    @Test
+    void testKeyFromOtherReplicaIsPickedUp() {
+        JwtKeyStore replica1 = this.store("ES256");
+        JwtKeyStore replica2 = this.store("ES256");
+
+        // replica2 rotates first; replica1 has not refreshed yet.
+        this.clock.advance(Duration.ofDays(8));
+        replica2.refresh();
+
+        assertThat(replica1.decoder().decode(sign(replica2)).getSubject()).isEqualTo("john");
+    }
+
+    @Test
+    void testChangedAlgorithmRotatesKey() {
+        String token = sign(this.store("ES256"));
+
+        JwtKeyStore store = this.store("RS256");
+
+        assertThat(store.currentKey().getAlgorithm().getName()).isEqualTo("RS256");
+        assertThat(store.decoder().decode(token).getSubject()).isEqualTo("john");
+    }
+
+    @Test
+    void testPublicJwkSetHasNoSecrets() {
+        JwtKeyStore store = this.store("HS256");
+
+        assertThat(store.getPublicJwkSet().getKeys()).isEmpty();
+    }
+
+    private JwtKeyStore store(String algorithm) {
+        return new JwtKeyStore(this.directory, algorithm, Duration.ofDays(7), Duration.ofDays(1), this.clock);
+    }
+
+    private static String sign(JwtKeyStore store) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofDays(30)))
+                .subject("john")
+                .build();
+        JwtSigningKey key = store.currentKey();
+        JwsHeader header = JwsHeader.with(key.getAlgorithm()).keyId(key.getKeyId()).build();
+        return store.encoder().encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserPrincipal;
+
+import io.micrometer.observation.ObservationRegistry;
+
+class JwtProviderTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = { "RS256", "ES256", "HS256" })
+    void testCompactTokenVerifies(String algorithm) {
+        JwtKeyStore keyStore = keyStore(algorithm);
+
+        Jwt jwt = keyStore.decoder().decode(provider(keyStore, true).createToken(authentication("john")));
+
+        assertThat(jwt.getSubject()).isEqualTo("john");
+        assertThat(jwt.getId()).isNotBlank();
+        assertThat(jwt.getHeaders()).containsEntry("kid", keyStore.currentKey().getKeyId());
+        assertThat(Duration.between(jwt.getIssuedAt(), jwt.getExpiresAt())).isEqualTo(Duration.ofMinutes(15));
+        assertThat(jwt.getClaims()).containsEntry(JwtProvider.USER_ID_CLAIM, 1L)
+                .containsEntry(JwtProvider.ROLE_CODES_CLAIM, 3L)
+                .containsEntry(JwtProvider.AUTHORITIES_CLAIM, "ROLE_moderator");
+        assertThat(authorities().convert(jwt)).extracting("authority")
+                .containsExactlyInAnyOrder("ROLE_admin", "ROLE_user", "ROLE_moderator");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "RS256", "ES256", "HS256" })
+    void testDefaultTokenVerifies(String algorithm) {
+        JwtKeyStore keyStore = keyStore(algorithm);
+
+        Jwt jwt = keyStore.decoder().decode(provider(keyStore, false).createToken(authentication("john")));
+
+        assertThat(jwt.getSubject()).isEqualTo("john");
+        assertThat(jwt.getId()).isNotBlank();
+        assertThat(jwt.getHeaders()).containsEntry("kid", keyStore.currentKey().getKeyId());
+        assertThat(jwt.getClaims()).doesNotContainKey(JwtProvider.ROLE_CODES_CLAIM)
+                .containsEntry(JwtProvider.AUTHORITIES_CLAIM, "ROLE_admin ROLE_user ROLE_moderator");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void testBothFormsGrantTheSameAuthorities(boolean compactClaims) {
+        JwtKeyStore keyStore = keyStore("ES256");
+
+        Jwt jwt = keyStore.decoder().decode(provider(keyStore, compactClaims).createToken(authentication("john")));
+
+        assertThat(authorities().convert(jwt)).extracting("authority")
+                .containsExactlyInAnyOrder("ROLE_admin", "ROLE_user", "ROLE_moderator");
+        assertThat(jwt.getClaims()).containsEntry(JwtProvider.USER_ID_CLAIM, 1L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "jo\"hn", "jo\\hn", "jo\nhn", "jöhn" })
+    void testSubjectIsEscaped(String username) {
+        JwtKeyStore keyStore = keyStore("HS256");
+
+        Jwt jwt = keyStore.decoder().decode(provider(keyStore, true).createToken(authentication(username)));
+
+        assertThat(jwt.getSubject()).isEqualTo(username);
+    }
+
+    private static JwtKeyStore keyStore(String algorithm) {
+        return new JwtKeyStore(null, algorithm, Duration.ofDays(7), Duration.ofDays(1), Clock.systemUTC());
+    }
+
+    private static JwtProvider provider(JwtKeyStore keyStore, boolean compactClaims) {
+        return new JwtProvider(keyStore, ObservationRegistry.NOOP, Duration.ofMinutes(15), compactClaims);
+    }
+
+    private static Authentication authentication(String username) {
+        UserPrincipal principal = new UserPrincipal(new User(1, username, "{noop}secret", "admin user moderator", true));
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    // Same claim settings as SecurityConfiguration#jwtAuthenticationConverter.
+    private static RoleCodeAuthoritiesConverter authorities() {
+        JwtGrantedAuthoritiesConverter claimConverter = new JwtGrantedAuthoritiesConverter();
+        claimConverter.setAuthoritiesClaimName(JwtProvider.AUTHORITIES_CLAIM);
+        claimConverter.setAuthorityPrefix("");
+        return new RoleCodeAuthoritiesConverter(claimConverter);
+    }
+
+}
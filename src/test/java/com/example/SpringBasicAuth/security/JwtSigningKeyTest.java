@@ -0,0 +1,57 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+class JwtSigningKeyTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = { "RS256", "ES256", "HS256", "es256" })
+    void testSignedTokenVerifies(String algorithm) {
+        JwtSigningKey key = JwtSigningKey.generate(algorithm);
+
+        String token = sign(key);
+        Jwt jwt = key.decoder().decode(token);
+
+        assertThat(jwt.getSubject()).isEqualTo("john");
+        assertThat(jwt.getHeaders()).containsEntry("alg", key.getAlgorithm().getName());
+    }
+
+    @Test
+    void testTokenFromOtherKeyIsRejected() {
+        String token = sign(JwtSigningKey.generate("ES256"));
+
+        assertThatThrownBy(() -> JwtSigningKey.generate("ES256").decoder().decode(token))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void testUnsupportedAlgorithm() {
+        assertThatThrownBy(() -> JwtSigningKey.generate("none"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported JWT algorithm none");
+    }
+
+    private static String sign(JwtSigningKey key) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .subject("john")
+                .build();
+        JwsHeader header = JwsHeader.with(key.getAlgorithm()).build();
+        return key.encoder().encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.SpringBasicAuth.user.UserService;
+
+class LoginAttemptTrackerTest {
+
+    JwtKeyStoreTest.MutableClock clock;
+
+    UserService userService;
+
+    LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new JwtKeyStoreTest.MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        this.userService = mock(UserService.class);
+        this.tracker = new LoginAttemptTracker(3, Duration.ofMinutes(1), Duration.ofMinutes(15), 100, this.clock,
+                this.userService);
+    }
+
+    @Test
+    void testLocksAfterMaxFailuresWithinWindow() {
+        this.tracker.recordFailure("john");
+        this.tracker.recordFailure("John");
+        assertThat(this.tracker.isLocked("john")).isFalse();
+
+        this.tracker.recordFailure("john");
+        assertThat(this.tracker.isLocked("JOHN")).isTrue();
+        assertThat(this.tracker.isLocked("eric")).isFalse();
+    }
+
+    @Test
+    void testOldFailuresSlideOutOfTheWindow() {
+        this.tracker.recordFailure("john");
+        this.clock.advance(Duration.ofSeconds(40));
+        this.tracker.recordFailure("john");
+        this.clock.advance(Duration.ofSeconds(30));
+        this.tracker.recordFailure("john"); // The first failure is 70s old.
+
+        assertThat(this.tracker.isLocked("john")).isFalse();
+
+        this.tracker.recordFailure("john"); // Three within the last 30s.
+        assertThat(this.tracker.isLocked("john")).isTrue();
+    }
+
+    @Test
+    void testSuccessResetsFailures() {
+        this.tracker.recordFailure("john");
+        this.tracker.recordFailure("john");
+        this.tracker.recordSuccess("john");
+        this.tracker.recordFailure("john");
+
+        assertThat(this.tracker.isLocked("john")).isFalse();
+    }
+
+    @Test
+    void testLockExpires() {
+        for (int i = 0; i < 3; i++) {
+            this.tracker.recordFailure("john");
+        }
+        this.clock.advance(Duration.ofMinutes(15));
+
+        assertThat(this.tracker.isLocked("john")).isFalse();
+    }
+
+    @Test
+    void testFlushWritesNewLocksOnce() {
+        for (int i = 0; i < 3; i++) {
+            this.tracker.recordFailure("john");
+            this.tracker.recordFailure("Eric");
+        }
+
+        this.tracker.flush();
+        this.tracker.flush();
+
+        verify(this.userService, times(1)).lockAccounts(
+                argThat(keys -> keys.containsAll(List.of("john", "eric"))),
+                eq(this.clock.instant().plus(Duration.ofMinutes(15))));
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        given(this.userService.lockAccounts(anyCollection(), any()))
+                .willThrow(new IllegalStateException("database down"))
+                .willReturn(1);
+        for (int i = 0; i < 3; i++) {
+            this.tracker.recordFailure("john");
+        }
+
+        this.tracker.flush();
+        this.tracker.flush();
+
+        verify(this.userService, times(2)).lockAccounts(eq(List.of("john")), any());
+    }
+
+    @Test
+    void testNothingToFlush() {
+        this.tracker.flush();
+
+        verify(this.userService, never()).lockAccounts(anyCollection(), any());
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest(properties = {
+        "security.login-rate-limit.enabled=true",
+        "security.login-rate-limit.address.capacity=4",
+        "security.login-rate-limit.address.refill-period=1h",
+        "security.login-rate-limit.username.capacity=2",
+        "security.login-rate-limit.username.refill-period=1h" })
+@AutoConfigureMockMvc
+class LoginRateLimitFilterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    @Test
+    void testRejectsAttemptsOverTheUsernameLimit() throws Exception {
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.1"))
+                .with(httpBasic("eric", "wrong")))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.1"))
+                .with(httpBasic("eric", "wrong")))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.1"))
+                .with(httpBasic("eric", "654321")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        // Other users are not affected.
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.1"))
+                .with(httpBasic("john", "123456")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testSuccessfulRequestsAreNotThrottled() throws Exception {
+        // Well past the username capacity of 2, on login and on ordinary API calls.
+        for (int i = 0; i < 5; i++) {
+            this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.2"))
+                    .with(httpBasic("john", "123456")))
+                    .andExpect(status().isOk());
+            this.mockMvc.perform(get(this.baseUrl + "/users/1").with(from("10.0.0.2"))
+                    .with(httpBasic("john", "123456")))
+                    .andExpect(status().isOk());
+        }
+        // A failure still counts.
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.2"))
+                .with(httpBasic("john", "wrong")))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.2"))
+                .with(httpBasic("john", "123456")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testRejectsFailedAttemptsOverTheAddressLimit() throws Exception {
+        // Different usernames, so only the address capacity of 4 applies.
+        for (int i = 0; i < 4; i++) {
+            this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.3"))
+                    .with(httpBasic("nobody" + i, "wrong")))
+                    .andExpect(status().isUnauthorized());
+        }
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.3"))
+                .with(httpBasic("john", "123456")))
+                .andExpect(status().isTooManyRequests());
+
+        // Another client is not affected.
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(from("10.0.0.4"))
+                .with(httpBasic("john", "123456")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserPrincipal;
+
+class PasswordEncoderFactoryTest {
+
+    @Test
+    void testCalibrationStopsAtBudget() {
+        // Each cost step takes 20 ms, so 90 ms fits cost 4 but not 5.
+        PasswordEncoder encoder = PasswordEncoderFactory.calibrate("test cost", Duration.ofMillis(90), 1, 10, 0,
+                SleepingEncoder::new);
+
+        assertThat(((SleepingEncoder) encoder).cost).isEqualTo(4);
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        PasswordEncoder fast = PasswordEncoderFactory.calibrate("test cost", Duration.ofHours(1), 1, 3, 0,
+                SleepingEncoder::new);
+        PasswordEncoder slow = PasswordEncoderFactory.calibrate("test cost", Duration.ZERO, 2, 3, 0,
+                SleepingEncoder::new);
+        PasswordEncoder fixed = PasswordEncoderFactory.calibrate("test cost", Duration.ZERO, 2, 3, 7,
+                SleepingEncoder::new);
+
+        assertThat(((SleepingEncoder) fast).cost).isEqualTo(3);
+        assertThat(((SleepingEncoder) slow).cost).isEqualTo(2);
+        assertThat(((SleepingEncoder) fixed).cost).isEqualTo(7);
+        assertThatThrownBy(() -> PasswordEncoderFactory.calibrate("test cost", Duration.ZERO, 4, 3, 0,
+                SleepingEncoder::new)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testArgon2IsCalibratedFromItsOwnMinimum() {
+        // A zero budget keeps the minimum; with the shared bcrypt minimum of 10 this
+        // used to land on the Argon2 maximum.
+        String hash = PasswordEncoderFactory.create("argon2", Duration.ZERO, 0, 0).encode("secret");
+
+        assertThat(hash).startsWith("{argon2}").contains(",t=2,");
+    }
+
+    @Test
+    void testBcryptFloorIsTheBaselineStrength() {
+        String hash = PasswordEncoderFactory.create("bcrypt", Duration.ZERO, 0, 0).encode("secret");
+        String optedDown = PasswordEncoderFactory.create("bcrypt", Duration.ZERO, 10, 0).encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$12$");
+        assertThat(optedDown).startsWith("{bcrypt}$2a$10$");
+    }
+
+    @Test
+    void testWeakerHashesAreUpgraded() {
+        PasswordEncoder encoder = PasswordEncoderFactory.create("bcrypt", Duration.ZERO, 0, 5);
+
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue(); // No {id}.
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void testLoginRehashesWeakerHash() {
+        PasswordEncoder encoder = PasswordEncoderFactory.create("bcrypt", Duration.ZERO, 0, 5);
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        UserAuthenticationProvider provider = this.provider(encoder,
+                "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"), passwordService);
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("john", "secret"));
+
+        verify(passwordService).updatePassword(any(UserDetails.class), startsWith("{bcrypt}$2a$05$"));
+    }
+
+    @Test
+    void testLoginKeepsCurrentHash() {
+        PasswordEncoder encoder = PasswordEncoderFactory.create("bcrypt", Duration.ZERO, 0, 5);
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        UserAuthenticationProvider provider = this.provider(encoder, encoder.encode("secret"), passwordService);
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("john", "secret"));
+
+        verify(passwordService, never()).updatePassword(any(UserDetails.class), anyString());
+    }
+
+    private UserAuthenticationProvider provider(PasswordEncoder encoder, String storedHash,
+            UserDetailsPasswordService passwordService) {
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        given(userDetailsService.loadUserByUsername(eq("john")))
+                .willReturn(new UserPrincipal(new User(1, "john", storedHash, "user", true)));
+        given(passwordService.updatePassword(any(UserDetails.class), anyString()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        UserAuthenticationProvider provider = new UserAuthenticationProvider(null, null);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
+        return provider;
+    }
+
+    static class SleepingEncoder implements PasswordEncoder {
+
+        final int cost;
+
+        SleepingEncoder(int cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                Thread.sleep(this.cost * 20L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return false;
+        }
+
+    }
+
+}
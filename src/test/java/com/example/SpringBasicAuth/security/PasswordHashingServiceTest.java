@@ -0,0 +1,165 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.SpringBasicAuth.system.exception.PasswordHashingRejectedException;
+
+import io.micrometer.observation.ObservationRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordHashingServiceTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PasswordHashingService passwordHashingService;
+
+    @Autowired
+    GatedPasswordEncoder gatedPasswordEncoder;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    @AfterEach
+    void openGate() {
+        this.gatedPasswordEncoder.open();
+    }
+
+    @Test
+    void testFullQueueIsRejectedWith503() throws Exception {
+        // One hash running and one queued fill a pool of one with a queue of one.
+        this.gatedPasswordEncoder.close();
+        CompletableFuture<String> running = CompletableFuture
+                .supplyAsync(() -> this.passwordHashingService.encode("a"));
+        this.gatedPasswordEncoder.awaitEntered();
+        CompletableFuture<String> queued = CompletableFuture
+                .supplyAsync(() -> this.passwordHashingService.encode("b"));
+        while (this.passwordHashingService.getQueueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+        long rejectedBefore = this.passwordHashingService.getRejectedCount();
+
+        assertThatThrownBy(() -> this.passwordHashingService.matches("c", "hash"))
+                .isInstanceOf(PasswordHashingRejectedException.class);
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("john", "123456")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertThat(this.passwordHashingService.getRejectedCount()).isEqualTo(rejectedBefore + 2);
+
+        // Work that was admitted still completes, and logins work again.
+        this.gatedPasswordEncoder.open();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isNotBlank();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotBlank();
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("john", "123456")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testEncodeAllKeepsBatchWithinPool() {
+        // Five hashes at once would overflow a pool of two with a queue of one.
+        PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(4), 2, 1,
+                ObservationRegistry.NOOP);
+        try {
+            List<String> hashes = service.encodeAll(List.of("a", "b", "c", "d", "e"));
+
+            assertThat(hashes).hasSize(5);
+            assertThat(service.matches("a", hashes.get(0))).isTrue();
+            assertThat(service.matches("e", hashes.get(4))).isTrue();
+            assertThat(service.getRejectedCount()).isZero();
+        } finally {
+            service.destroy();
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        GatedPasswordEncoder gatedPasswordEncoder() {
+            return new GatedPasswordEncoder();
+        }
+
+        // Replaces the application's hashing service with one whose pool is
+        // easy to fill.
+        @Bean
+        @Primary
+        PasswordHashingService gatedPasswordHashingService(GatedPasswordEncoder gatedPasswordEncoder) {
+            return new PasswordHashingService(gatedPasswordEncoder, 1, 1, ObservationRegistry.NOOP);
+        }
+
+    }
+
+    /**
+     * BCrypt that, while closed, blocks every call until it is opened again.
+     */
+    static class GatedPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate = new BCryptPasswordEncoder(4);
+
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        private volatile CountDownLatch entered = new CountDownLatch(1);
+
+        void close() {
+            this.entered = new CountDownLatch(1);
+            this.gate = new CountDownLatch(1);
+        }
+
+        void open() {
+            this.gate.countDown();
+        }
+
+        void awaitEntered() throws InterruptedException {
+            assertThat(this.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            this.pass();
+            return this.delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            this.pass();
+            return this.delegate.matches(rawPassword, encodedPassword);
+        }
+
+        private void pass() {
+            this.entered.countDown();
+            try {
+                this.gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+}
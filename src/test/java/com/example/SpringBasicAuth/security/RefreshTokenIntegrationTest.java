@@ -0,0 +1,146 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.SpringBasicAuth.security.dto.RefreshTokenRequest;
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Renames and locks eric, which other test classes rely on. Locks taken by
+// failed logins stay in memory for the whole test.
+@SpringBootTest(properties = "security.lockout.flush-interval=PT1H")
+@AutoConfigureMockMvc
+@DirtiesContext
+class RefreshTokenIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    String refreshToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String body = this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("eric", "654321")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").isString())
+                .andReturn().getResponse().getContentAsString();
+        this.refreshToken = new JSONObject(body).getString("refreshToken");
+    }
+
+    @Test
+    @DisplayName("A refresh token is traded for a working access token and its successor")
+    void testRefresh() throws Exception {
+        String body = this.refresh(this.refreshToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userInfo.username").value("eric"))
+                .andReturn().getResponse().getContentAsString();
+        JSONObject json = new JSONObject(body);
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/2")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + json.getString("token")))
+                .andExpect(status().isOk());
+        this.refresh(json.getString("refreshToken"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Reusing a rotated refresh token revokes its successors")
+    void testReuseRevokesFamily() throws Exception {
+        String body = this.refresh(this.refreshToken)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String successor = new JSONObject(body).getString("refreshToken");
+
+        this.refresh(this.refreshToken)
+                .andExpect(status().isUnauthorized());
+        this.refresh(successor)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Unknown refresh tokens are rejected")
+    void testUnknownToken() throws Exception {
+        this.refresh("not-a-token")
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("A refresh token stays with its account when the username is renamed and reused")
+    @DirtiesContext
+    void testRenamedUsernameIsNotInherited() throws Exception {
+        this.userService.update(2, new User(null, "erik", null, "user", true));
+        User newEric = this.userService.save(new User(null, "eric", "newsecret", "admin user", true));
+
+        this.refresh(this.refreshToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userInfo.id").value(2))
+                .andExpect(jsonPath("$.userInfo.username").value("erik"));
+        this.userService.delete(newEric.getId());
+    }
+
+    @Test
+    @DisplayName("A locked user's refresh token is rejected without being used up")
+    @DirtiesContext
+    void testLockedUserTokenIsNotRotated() throws Exception {
+        this.userService.lockAccounts(List.of("eric"), Instant.now().plus(1, ChronoUnit.HOURS));
+
+        this.refresh(this.refreshToken)
+                .andExpect(status().isUnauthorized());
+
+        this.userService.lockAccounts(List.of("eric"), Instant.now().minusSeconds(1));
+        this.refresh(this.refreshToken)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("A refresh token is rejected while failed logins keep the user locked")
+    @DirtiesContext
+    void testUserLockedByFailedLoginsIsNotRefreshed() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("eric", "wrong")))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        this.refresh(this.refreshToken)
+                .andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String token) throws Exception {
+        return this.mockMvc.perform(post(this.baseUrl + "/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(this.objectMapper.writeValueAsString(new RefreshTokenRequest(token))));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketsTest {
+
+    AtomicLong now;
+
+    TokenBuckets buckets;
+
+    @BeforeEach
+    void setUp() {
+        this.now = new AtomicLong(-5_000_000_000L); // nanoTime may be negative
+        this.buckets = new TokenBuckets(3, Duration.ofSeconds(1), 100, this.now::get);
+    }
+
+    @Test
+    void testBurstUpToCapacity() {
+        assertThat(this.buckets.tryAcquire("a")).isZero();
+        assertThat(this.buckets.tryAcquire("a")).isZero();
+        assertThat(this.buckets.tryAcquire("a")).isZero();
+        assertThat(this.buckets.tryAcquire("a")).isEqualTo(Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void testRefillsOneTokenPerPeriod() {
+        for (int i = 0; i < 3; i++) {
+            this.buckets.tryAcquire("a");
+        }
+        this.now.addAndGet(Duration.ofMillis(400).toNanos());
+        assertThat(this.buckets.tryAcquire("a")).isEqualTo(Duration.ofMillis(600).toNanos());
+
+        this.now.addAndGet(Duration.ofMillis(600).toNanos());
+        assertThat(this.buckets.tryAcquire("a")).isZero();
+        assertThat(this.buckets.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void testIdleBucketIsFullAgain() {
+        for (int i = 0; i < 3; i++) {
+            this.buckets.tryAcquire("a");
+        }
+        this.now.addAndGet(Duration.ofMinutes(1).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThat(this.buckets.tryAcquire("a")).isZero();
+        }
+        assertThat(this.buckets.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void testKeysHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            this.buckets.tryAcquire("a");
+        }
+        assertThat(this.buckets.tryAcquire("a")).isPositive();
+        assertThat(this.buckets.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void testRefundGivesTokenBack() {
+        for (int i = 0; i < 3; i++) {
+            this.buckets.tryAcquire("a");
+        }
+        this.buckets.refund("a");
+
+        assertThat(this.buckets.tryAcquire("a")).isZero();
+        assertThat(this.buckets.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void testRefundNeverExceedsCapacity() {
+        this.buckets.refund("a");
+        this.buckets.tryAcquire("a");
+        this.buckets.refund("a");
+        this.buckets.refund("a");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(this.buckets.tryAcquire("a")).isZero();
+        }
+        assertThat(this.buckets.tryAcquire("a")).isPositive();
+    }
+
+}
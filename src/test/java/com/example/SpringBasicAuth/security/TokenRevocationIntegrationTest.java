@@ -0,0 +1,116 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.SpringBasicAuth.ChangePasswordRequest.ChangePasswordRequest;
+import com.example.SpringBasicAuth.user.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TokenRevocationIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    String adminToken;
+
+    String userToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.adminToken = this.login("john", "123456");
+        this.userToken = this.login("eric", "654321");
+        this.mockMvc.perform(get(this.baseUrl + "/users/2").header(HttpHeaders.AUTHORIZATION, this.userToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Disabling a user revokes their tokens")
+    void testDisableRevokes() throws Exception {
+        String json = this.objectMapper.writeValueAsString(new UserDto(2, "eric", "user", false));
+        this.mockMvc.perform(put(this.baseUrl + "/users/2").contentType(MediaType.APPLICATION_JSON).content(json)
+                .header(HttpHeaders.AUTHORIZATION, this.adminToken))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/2").header(HttpHeaders.AUTHORIZATION, this.userToken))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(get(this.baseUrl + "/users/2").header(HttpHeaders.AUTHORIZATION, this.adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Disabling a renamed user revokes the tokens minted under the old name")
+    void testDisableAfterRenameRevokes() throws Exception {
+        String renamed = this.objectMapper.writeValueAsString(new UserDto(2, "erik", "user", true));
+        this.mockMvc.perform(put(this.baseUrl + "/users/2").contentType(MediaType.APPLICATION_JSON).content(renamed)
+                .header(HttpHeaders.AUTHORIZATION, this.adminToken))
+                .andExpect(status().isOk());
+        String disabled = this.objectMapper.writeValueAsString(new UserDto(2, "erik", "user", false));
+        this.mockMvc.perform(put(this.baseUrl + "/users/2").contentType(MediaType.APPLICATION_JSON).content(disabled)
+                .header(HttpHeaders.AUTHORIZATION, this.adminToken))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/2").header(HttpHeaders.AUTHORIZATION, this.userToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Deleting a user revokes their tokens")
+    void testDeleteRevokes() throws Exception {
+        this.mockMvc.perform(delete(this.baseUrl + "/users/2").header(HttpHeaders.AUTHORIZATION, this.adminToken))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/1").header(HttpHeaders.AUTHORIZATION, this.userToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Changing the password revokes the user's tokens")
+    void testPasswordChangeRevokes() throws Exception {
+        ChangePasswordRequest changePasswordRequest = new ChangePasswordRequest();
+        changePasswordRequest.setUsername("eric");
+        changePasswordRequest.setOldPassword("654321");
+        changePasswordRequest.setNewPassword("new-password");
+        this.mockMvc.perform(post(this.baseUrl + "/users/reset").contentType(MediaType.APPLICATION_JSON)
+                .content(this.objectMapper.writeValueAsString(changePasswordRequest))
+                .header(HttpHeaders.AUTHORIZATION, this.userToken))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/2").header(HttpHeaders.AUTHORIZATION, this.userToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login(String username, String password) throws Exception {
+        String body = this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic(username, password)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + new JSONObject(body).getString("token");
+    }
+
+}
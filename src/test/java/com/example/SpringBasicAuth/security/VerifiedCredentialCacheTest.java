@@ -0,0 +1,52 @@
+package com.example.SpringBasicAuth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserChangedEvent;
+import com.example.SpringBasicAuth.user.UserPrincipal;
+
+class VerifiedCredentialCacheTest {
+
+    VerifiedCredentialCache cache;
+
+    UserPrincipal john;
+
+    @BeforeEach
+    void setUp() {
+        this.cache = new VerifiedCredentialCache(100, Duration.ofMinutes(5));
+        this.john = new UserPrincipal(new User(1, "john", "$2a$12$hash", "admin user", true));
+    }
+
+    @Test
+    void testVerifiedPasswordMatches() {
+        this.cache.markVerified(this.john, "123456");
+
+        assertThat(this.cache.isVerified(this.john, "123456")).isTrue();
+        assertThat(this.cache.isVerified(this.john, "1234567")).isFalse();
+    }
+
+    @Test
+    void testChangedHashDoesNotMatch() {
+        this.cache.markVerified(this.john, "123456");
+
+        UserPrincipal rehashed = new UserPrincipal(new User(1, "john", "$2a$12$other", "admin user", true));
+
+        assertThat(this.cache.isVerified(rehashed, "123456")).isFalse();
+    }
+
+    @Test
+    void testUserChangeInvalidates() {
+        this.cache.markVerified(this.john, "123456");
+
+        this.cache.onUserChanged(new UserChangedEvent(1, "john", UserChangedEvent.Change.PASSWORD_CHANGED));
+
+        assertThat(this.cache.isVerified(this.john, "123456")).isFalse();
+    }
+
+}
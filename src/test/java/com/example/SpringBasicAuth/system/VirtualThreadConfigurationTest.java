@@ -0,0 +1,33 @@
+package com.example.SpringBasicAuth.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import com.example.SpringBasicAuth.SpringBasicAuthApplication;
+
+class VirtualThreadConfigurationTest {
+
+    @Test
+    void testTasksRunOnVirtualThreadsAndExecutorIsClosedOnShutdown() throws Exception {
+        ExecutorService executor;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBasicAuthApplication.class)
+                .run("--server.port=0", "--spring.threads.virtual.enabled=true")) {
+            executor = context.getBean("virtualThreadExecutor", ExecutorService.class);
+            AsyncTaskExecutor taskExecutor = context.getBean("applicationTaskExecutor", AsyncTaskExecutor.class);
+
+            assertThat(taskExecutor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS))
+                    .isTrue();
+            assertThat(executor.isShutdown()).isFalse();
+        }
+
+        assertThat(executor.isShutdown()).isTrue();
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.example.SpringBasicAuth.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class CachedUserDetailsServiceTest {
+
+    @Mock
+    UserService userService;
+
+    UserPrincipalCache userCache;
+
+    CachedUserDetailsService cachedUserDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        this.userCache = new UserPrincipalCache(100, Duration.ofMinutes(5));
+        this.cachedUserDetailsService = new CachedUserDetailsService(this.userService, this.userCache);
+    }
+
+    @Test
+    void testMissLoadsFromUserServiceOnce() {
+        UserPrincipal john = new UserPrincipal(new User(1, "john", "hash", "admin user", true));
+        given(this.userService.loadUserByUsername("john")).willReturn(john);
+
+        assertThat(this.cachedUserDetailsService.loadUserByUsername("john")).isSameAs(john);
+        assertThat(this.cachedUserDetailsService.loadUserByUsername("john")).isSameAs(john);
+
+        verify(this.userService, times(1)).loadUserByUsername("john");
+    }
+
+    @Test
+    void testEventEvictsSoNextLoadHitsUserService() {
+        UserPrincipal john = new UserPrincipal(new User(1, "john", "hash", "admin user", true));
+        UserPrincipal disabled = new UserPrincipal(new User(1, "john", "hash", "admin user", false));
+        given(this.userService.loadUserByUsername("john")).willReturn(john, disabled);
+        this.cachedUserDetailsService.loadUserByUsername("john");
+
+        this.userCache.onUserChanged(new UserChangedEvent(1, "John", UserChangedEvent.Change.DISABLED));
+
+        assertThat(this.cachedUserDetailsService.loadUserByUsername("john")).isSameAs(disabled);
+        verify(this.userService, times(2)).loadUserByUsername("john");
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        given(this.userService.loadUserByUsername("nobody"))
+                .willThrow(new UsernameNotFoundException("username nobody is not found."));
+
+        assertThatThrownBy(() -> this.cachedUserDetailsService.loadUserByUsername("nobody"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> this.cachedUserDetailsService.loadUserByUsername("nobody"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        verify(this.userService, times(2)).loadUserByUsername("nobody");
+        assertThat(this.userCache.getSize()).isZero();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.SpringBasicAuth.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+class RoleRegistryTest {
+
+    @Test
+    void testParseRoles() {
+        RoleSet roleSet = RoleRegistry.parse("admin user moderator");
+
+        assertThat(roleSet.authorities()).extracting("authority")
+                .containsExactly("ROLE_admin", "ROLE_user", "ROLE_moderator");
+        assertThat(roleSet.hasWellKnownRole(RoleRegistry.wellKnownBit("admin"))).isTrue();
+        assertThat(roleSet.hasWellKnownRole(RoleRegistry.wellKnownBit("user"))).isTrue();
+    }
+
+    @Test
+    void testRoleSetsAreShared() {
+        RoleSet first = RoleRegistry.parse("user");
+        RoleSet second = RoleRegistry.parse("user");
+
+        assertThat(second).isSameAs(first);
+        assertThat(RoleRegistry.parse("admin user").authorities().get(1)).isSameAs(first.authorities().get(0));
+    }
+
+    @Test
+    void testWellKnownMaskRoundTrip() {
+        RoleSet roleSet = RoleRegistry.parse("user admin moderator");
+
+        assertThat(RoleRegistry.wellKnownAuthorities(roleSet.wellKnownMask())).extracting("authority")
+                .containsExactly("ROLE_admin", "ROLE_user");
+        assertThat(RoleRegistry.wellKnownBit(roleSet.authorities().get(2))).isEqualTo(-1);
+        assertThat(RoleRegistry.wellKnownAuthorities(0L)).isEmpty();
+    }
+
+    @Test
+    void testAuthorityCacheIsBounded() {
+        GrantedAuthority admin = RoleRegistry.authority("admin");
+
+        for (int i = 0; i < 2000; i++) {
+            assertThat(RoleRegistry.authority("generated" + i).getAuthority()).isEqualTo("ROLE_generated" + i);
+        }
+
+        assertThat(RoleRegistry.cachedAuthorities()).isLessThanOrEqualTo(1024);
+        assertThat(RoleRegistry.authority("admin")).isSameAs(admin);
+    }
+
+    @Test
+    void testNoRoles() {
+        assertThat(new UserPrincipal(new User(1, "john", "123456", null, true)).getAuthorities()).isEmpty();
+    }
+
+}
@@ -73,9 +73,15 @@ class UserControllerTest {
         this.users.add(u3);
     }
 
+    List<UserDto> userDtos() {
+        return this.users.stream()
+                .map(user -> new UserDto(user.getId(), user.getUsername(), user.getRoles(), user.isEnabled()))
+                .toList();
+    }
+
     @Test
     void testFindAllUsersSuccess() throws Exception {
-        given(this.userService.findAll()).willReturn(this.users);
+        given(this.userService.findAllDtos()).willReturn(this.userDtos());
 
         this.mockMvc.perform(get(this.baseUrl + "/users").accept(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", Matchers.hasSize(3)))
@@ -85,9 +91,26 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[1].username").value("eric"));
     }
 
+    @Test
+    void testFindUsersPageSuccess() throws Exception {
+        List<UserDto> page = List.of(new UserDto(1, "john", "admin user", true), new UserDto(2, "eric", "user", true));
+        given(this.userService.findPageOrderById(0, 2)).willReturn(page);
+
+        this.mockMvc.perform(get(this.baseUrl + "/users?limit=2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[1].username").value("eric"))
+                .andExpect(header().string("X-Next-Cursor", "2"));
+    }
+
+    @Test
+    void testFindUsersPageWithInvalidCursor() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/users?after=abc").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testFindUserByIdSuccess() throws Exception {
-        given(this.userService.findById(1)).willReturn(this.users.get(0));
+        given(this.userService.findDtoById(1)).willReturn(this.userDtos().get(0));
 
         // When and then is combined in controllers
 
@@ -16,6 +16,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.example.SpringBasicAuth.ChangePasswordRequest.ChangePasswordRequest;
+import com.example.SpringBasicAuth.user.dto.UserDto;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -26,6 +27,7 @@ import org.json.JSONObject;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -78,6 +80,76 @@ public class UserIntegrationTest {
                                 .andExpect(jsonPath("$", Matchers.hasSize(3)));
         }
 
+        @Test
+        @DisplayName("findAllUsers (GET) by username pages")
+        @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+        void testFindUsersPageByUsernameSuccess() throws Exception {
+                // Pages follow the lower-cased username: eric, john, tom.
+                this.mockMvc
+                                .perform(get(this.baseUrl + "/users?sort=username&limit=2")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header(HttpHeaders.AUTHORIZATION, this.token))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                                .andExpect(jsonPath("$[0].username").value("eric"))
+                                .andExpect(jsonPath("$[1].username").value("john"))
+                                .andExpect(header().string("X-Next-Cursor", "john"));
+
+                this.mockMvc
+                                .perform(get(this.baseUrl + "/users?sort=username&limit=2&after=JOHN")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header(HttpHeaders.AUTHORIZATION, this.token))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                                .andExpect(jsonPath("$[0].username").value("tom"))
+                                .andExpect(header().doesNotExist("X-Next-Cursor"));
+        }
+
+        @Test
+        @DisplayName("findAllUsers (GET) by id pages")
+        @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+        void testFindUsersPageByIdSuccess() throws Exception {
+                this.mockMvc
+                                .perform(get(this.baseUrl + "/users?limit=2&after=1")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header(HttpHeaders.AUTHORIZATION, this.token))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                                .andExpect(jsonPath("$[0].id").value(2))
+                                .andExpect(jsonPath("$[1].id").value(3))
+                                .andExpect(jsonPath("$[1].password").doesNotExist())
+                                .andExpect(header().string("X-Next-Cursor", "3"));
+
+                this.mockMvc
+                                .perform(get(this.baseUrl + "/users?sort=name").accept(MediaType.APPLICATION_JSON)
+                                                .header(HttpHeaders.AUTHORIZATION, this.token))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("streamAllUsers (GET)")
+        @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+        void testStreamAllUsersSuccess() throws Exception {
+                MvcResult started = this.mockMvc
+                                .perform(get(this.baseUrl + "/users/stream").accept(MediaType.APPLICATION_NDJSON)
+                                                .header(HttpHeaders.AUTHORIZATION, this.token))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                String body = this.mockMvc.perform(asyncDispatch(started))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn().getResponse().getContentAsString();
+
+                // One JSON object per line, in id order, without password hashes.
+                String[] lines = body.split("\n");
+                assertThat(lines).hasSize(3);
+                assertThat(this.objectMapper.readValue(lines[0], UserDto.class))
+                                .isEqualTo(new UserDto(1, "john", "admin user", true));
+                assertThat(this.objectMapper.readValue(lines[2], UserDto.class).username()).isEqualTo("tom");
+                assertThat(body).doesNotContain("password");
+        }
+
         @Test
         @DisplayName("findUserById (GET)")
         @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
@@ -122,6 +194,27 @@ public class UserIntegrationTest {
                                 .andExpect(jsonPath("$.enabled").value("true")); // can't really check password
         }
 
+        @Test
+        @DisplayName("addUser (POST) Failure with duplicate username")
+        void testAddUserWithDuplicateUsername() throws Exception {
+
+                User payload = new User();
+
+                payload.setUsername("ERIC");
+                payload.setRoles("user");
+                payload.setPassword("greenbay");
+                payload.setEnabled(true);
+
+                String json = this.objectMapper.writeValueAsString(payload);
+
+                this.mockMvc
+                                .perform(post(this.baseUrl + "/users").contentType(MediaType.APPLICATION_JSON)
+                                                .content(json).accept(MediaType.APPLICATION_JSON)
+                                                .header(HttpHeaders.AUTHORIZATION, this.token))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$").value("Username ERIC is already taken"));
+        }
+
         // Need to add validation to test addUser POST failure
 
         @Test
@@ -135,18 +228,13 @@ public class UserIntegrationTest {
                  * u3.setRoles("user");
                  */
 
-                User payload = new User();
-
-                payload.setId(3);
-                payload.setUsername("tom");
-                payload.setPassword("qwerty");
-                payload.setEnabled(true);
-                payload.setRoles("user");
+                // Usernames are unique, so this updates tom instead of adding him again.
+                UserDto payload = new UserDto(3, "tom", "user", true);
 
                 String json = this.objectMapper.writeValueAsString(payload);
 
                 this.mockMvc
-                                .perform(post(this.baseUrl + "/users").contentType(MediaType.APPLICATION_JSON)
+                                .perform(put(this.baseUrl + "/users/3").contentType(MediaType.APPLICATION_JSON)
                                                 .content(json).accept(MediaType.APPLICATION_JSON)
                                                 .header(HttpHeaders.AUTHORIZATION, this.token))
                                 .andExpect(status().isOk())
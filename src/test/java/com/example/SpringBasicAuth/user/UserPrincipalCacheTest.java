@@ -0,0 +1,94 @@
+package com.example.SpringBasicAuth.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+// The users created here would change the user counts other test classes expect.
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class UserPrincipalCacheTest {
+
+    private static final AtomicInteger userCount = new AtomicInteger();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserPrincipalCache userPrincipalCache;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    User user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String username = "cached" + userCount.incrementAndGet();
+        this.user = this.userService.save(new User(null, username, "secret", "user", true));
+
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic(username, "secret")))
+                .andExpect(status().isOk());
+        assertThat(this.userPrincipalCache.getUserFromCache(username)).isNotNull();
+    }
+
+    @Test
+    void testUpdateEvictsPrincipal() {
+        this.userService.update(this.user.getId(), new User(null, this.user.getUsername(), null, "admin user", true));
+
+        assertThat(this.userPrincipalCache.getUserFromCache(this.user.getUsername())).isNull();
+    }
+
+    @Test
+    void testDisableEvictsPrincipal() throws Exception {
+        this.userService.update(this.user.getId(), new User(null, this.user.getUsername(), null, "user", false));
+
+        assertThat(this.userPrincipalCache.getUserFromCache(this.user.getUsername())).isNull();
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic(this.user.getUsername(), "secret")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testPasswordChangeEvictsPrincipal() throws Exception {
+        UserPrincipal principal = (UserPrincipal) this.userPrincipalCache.getUserFromCache(this.user.getUsername());
+
+        this.userService.updatePassword(principal, "changed");
+
+        assertThat(this.userPrincipalCache.getUserFromCache(this.user.getUsername())).isNull();
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic(this.user.getUsername(), "secret")))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic(this.user.getUsername(), "changed")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testDeleteEvictsPrincipal() throws Exception {
+        this.userService.delete(this.user.getId());
+
+        assertThat(this.userPrincipalCache.getUserFromCache(this.user.getUsername())).isNull();
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic(this.user.getUsername(), "secret")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testUsernameIsMatchedCaseInsensitively() {
+        assertThat(this.userPrincipalCache.getUserFromCache(this.user.getUsername().toUpperCase())).isNotNull();
+    }
+
+}
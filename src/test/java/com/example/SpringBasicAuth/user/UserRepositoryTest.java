@@ -0,0 +1,66 @@
+package com.example.SpringBasicAuth.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+
+import com.example.SpringBasicAuth.user.dto.UserDto;
+
+// Runs the Flyway migrations, but not DBDataInitializer: only the users saved
+// here exist.
+@DataJpaTest
+class UserRepositoryTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        this.users = this.userRepository.saveAll(List.of(
+                new User(null, "carol", "hash", "user", true),
+                new User(null, "Alice", "hash", "admin user", true),
+                new User(null, "bob", "hash", "user", false)));
+    }
+
+    @Test
+    void testPagesOrderedByIdStartAfterCursor() {
+        Integer firstId = this.users.get(0).getId();
+
+        List<UserDto> page = this.userRepository.findPageOrderById(firstId, Pageable.ofSize(1));
+
+        assertThat(page).extracting(UserDto::username).containsExactly("Alice");
+        assertThat(this.userRepository.findPageOrderById(this.users.get(2).getId(), Pageable.ofSize(1))).isEmpty();
+    }
+
+    @Test
+    void testPagesOrderedByUsernameIgnoreCase() {
+        List<UserDto> first = this.userRepository.findPageOrderByUsernameKey("", Pageable.ofSize(2));
+        List<UserDto> second = this.userRepository.findPageOrderByUsernameKey("bob", Pageable.ofSize(2));
+
+        assertThat(first).extracting(UserDto::username).containsExactly("Alice", "bob");
+        assertThat(second).extracting(UserDto::username).containsExactly("carol");
+    }
+
+    @Test
+    void testDtoQueriesReadEveryUser() {
+        User bob = this.users.get(2);
+
+        assertThat(this.userRepository.findAllDtos()).extracting(UserDto::username)
+                .containsExactly("carol", "Alice", "bob");
+        assertThat(this.userRepository.findDtoById(bob.getId()))
+                .contains(new UserDto(bob.getId(), "bob", "user", false));
+        try (Stream<UserDto> stream = this.userRepository.streamAllOrderById()) {
+            assertThat(stream).extracting(UserDto::username).containsExactly("carol", "Alice", "bob");
+        }
+    }
+
+}
@@ -17,8 +17,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.userdetails.UserDetails;
 
+import com.example.SpringBasicAuth.security.PasswordHashingService;
+import com.example.SpringBasicAuth.system.exception.DuplicateUsernameException;
 import com.example.SpringBasicAuth.system.exception.ObjectNotFoundException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,7 +35,10 @@ class UserServiceTest {
     UserRepository userRepository;
 
     @Mock
-    PasswordEncoder passwordEncoder;
+    PasswordHashingService passwordEncoder;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     UserService userService;
@@ -134,6 +140,21 @@ class UserServiceTest {
         verify(this.userRepository, times(1)).findById(Mockito.any(Integer.class));
     }
 
+    @Test
+    void testFindDtoByIdNotFound() {
+        // Given
+        given(this.userRepository.findDtoById(1)).willReturn(Optional.empty());
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.userService.findDtoById(1));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(ObjectNotFoundException.class)
+                .hasMessage("Could not find user with Id 1");
+        verify(this.userRepository, times(0)).findById(1);
+    }
+
     @Test
     void testSaveSuccess() {
         // Given
@@ -157,6 +178,74 @@ class UserServiceTest {
         verify(this.userRepository, times(1)).save(newUser);
     }
 
+    @Test
+    void testSaveAllSuccess() {
+        // Given
+        given(this.passwordEncoder.encodeAll(Mockito.anyList()))
+                .willReturn(List.of("Encoded Password", "Encoded Password", "Encoded Password"));
+        given(this.userRepository.findExistingUsernameKeys(Mockito.anyCollection())).willReturn(List.of());
+        given(this.userRepository.saveAll(this.users)).willReturn(this.users);
+
+        // When
+        List<User> savedUsers = this.userService.saveAll(this.users);
+
+        // Then
+        assertThat(savedUsers).hasSize(3);
+        assertThat(savedUsers).allMatch(user -> user.getPassword().equals("Encoded Password"));
+        verify(this.userRepository, times(1)).saveAll(this.users);
+    }
+
+    @Test
+    void testSaveAllDuplicateUsernameInBatch() {
+        // Given
+        User duplicate = new User(null, "JOHN", "123456", "user", true);
+        List<User> newUsers = List.of(this.users.get(0), duplicate);
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.userService.saveAll(newUsers));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(DuplicateUsernameException.class)
+                .hasMessage("Username JOHN is already taken");
+        verify(this.userRepository, times(0)).saveAll(newUsers);
+    }
+
+    @Test
+    void testSaveAllReportsSubmittedUsernameWhenTaken() {
+        // Given
+        List<User> newUsers = List.of(new User(null, "Lily", "123456", "user", true));
+        given(this.userRepository.findExistingUsernameKeys(Mockito.anyCollection())).willReturn(List.of("lily"));
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.userService.saveAll(newUsers));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(DuplicateUsernameException.class)
+                .hasMessage("Username Lily is already taken");
+        verify(this.userRepository, times(0)).saveAll(newUsers);
+    }
+
+    @Test
+    void testSaveDuplicateUsername() {
+        // Given
+        User newUser = new User();
+        newUser.setUsername("John");
+        newUser.setPassword("123456");
+
+        given(this.userRepository.existsByUsernameKey("john")).willReturn(true);
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.userService.save(newUser));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(DuplicateUsernameException.class)
+                .hasMessage("Username John is already taken");
+        verify(this.userRepository, times(0)).save(newUser);
+    }
+
     @Test
     void testUpdateSuccess() {
         // Given
@@ -209,6 +298,22 @@ class UserServiceTest {
         verify(this.userRepository, times(1)).findById(1);
     }
 
+    @Test
+    void testUpgradePasswordSuccess() {
+        // Given
+        User storedUser = new User(1, "john", "$2a$10$oldHash", "admin user", true);
+
+        given(this.userRepository.findByUsername("john")).willReturn(Optional.of(storedUser));
+        given(this.userRepository.save(storedUser)).willReturn(storedUser);
+
+        // When
+        UserDetails upgraded = this.userService.upgradePassword(new UserPrincipal(storedUser), "{bcrypt}$2a$12$newHash");
+
+        // Then
+        assertThat(upgraded.getPassword()).isEqualTo("{bcrypt}$2a$12$newHash");
+        verify(this.userRepository, times(1)).save(storedUser);
+    }
+
     @Test
     void testDeleteSuccess() {
         // Given
@@ -227,6 +332,8 @@ class UserServiceTest {
 
         // Then
         verify(this.userRepository, times(1)).deleteById(1);
+        verify(this.eventPublisher, times(1))
+                .publishEvent(new UserChangedEvent(1, "john", UserChangedEvent.Change.DELETED));
     }
 
     @Test
@@ -0,0 +1,89 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Imported users would change the user counts other test classes expect.
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class BulkUserImportIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    @Test
+    void testAdminImportsCsv() throws Exception {
+        this.mockMvc.perform(post(this.baseUrl + "/users/bulk").with(httpBasic("john", "123456"))
+                .contentType(BulkImportFormat.TEXT_CSV_VALUE)
+                .content("""
+                        username,password,roles
+                        bulk1,secret1,user
+                        eric,secret2,user
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].username").value("eric"));
+
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("bulk1", "secret1")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testNonAdminIsForbidden() throws Exception {
+        this.mockMvc.perform(post(this.baseUrl + "/users/bulk").with(httpBasic("eric", "654321"))
+                .contentType(BulkImportFormat.TEXT_CSV_VALUE)
+                .content("username,password\nbulk2,secret\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testAsyncImportCanBePolled() throws Exception {
+        String body = this.mockMvc.perform(post(this.baseUrl + "/users/bulk").with(httpBasic("john", "123456"))
+                .param("async", "true")
+                .contentType("application/x-ndjson")
+                .content("""
+                        {"username":"bulk3","password":"secret"}
+                        """))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String id = new JSONObject(body).getString("id");
+
+        String status = "RUNNING";
+        for (int attempt = 0; attempt < 100 && status.equals("RUNNING"); attempt++) {
+            Thread.sleep(50);
+            String job = this.mockMvc.perform(get(this.baseUrl + "/users/bulk/" + id)
+                    .with(httpBasic("john", "123456")))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = new JSONObject(job).getString("status");
+        }
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/bulk/" + id).with(httpBasic("john", "123456")))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.created").value(1));
+
+        this.mockMvc.perform(get(this.baseUrl + "/users/bulk/" + id).with(httpBasic("eric", "654321")))
+                .andExpect(status().isForbidden());
+        this.mockMvc.perform(get(this.baseUrl + "/users/bulk/unknown").with(httpBasic("john", "123456")))
+                .andExpect(status().isNotFound());
+    }
+
+}
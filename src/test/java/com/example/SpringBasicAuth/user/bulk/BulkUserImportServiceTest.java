@@ -0,0 +1,179 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.SpringBasicAuth.system.exception.DuplicateUsernameException;
+import com.example.SpringBasicAuth.user.User;
+import com.example.SpringBasicAuth.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUserImportServiceTest {
+
+    @Mock
+    UserService userService;
+
+    @TempDir
+    Path directory;
+
+    Clock clock;
+
+    BulkUserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = mock(Clock.class);
+        given(this.clock.instant()).willReturn(Instant.parse("2024-01-01T00:00:00Z"));
+        this.service = new BulkUserImportService(this.userService, new ObjectMapper(), this.clock);
+    }
+
+    @Test
+    void testRowsAreSavedInBatches() throws IOException {
+        BulkImportReport report = this.importCsv("""
+                username,password
+                u1,p1
+                u2,p2
+                u3,p3
+                u4,p4
+                u5,p5
+                """, 2);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> batches = ArgumentCaptor.forClass(List.class);
+        verify(this.userService, times(3)).saveAll(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(batches.getAllValues().get(2).get(0).getUsername()).isEqualTo("u5");
+
+        assertThat(report.getStatus()).isEqualTo(BulkImportReport.Status.COMPLETED);
+        assertThat(report.getProcessed()).isEqualTo(5);
+        assertThat(report.getCreated()).isEqualTo(5);
+        assertThat(report.getFailed()).isZero();
+    }
+
+    @Test
+    void testFailedBatchIsRetriedRowByRow() throws IOException {
+        given(this.userService.saveAll(anyList())).willThrow(new DuplicateUsernameException("john"));
+        given(this.userService.save(any(User.class))).willAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getUsername().equals("john")) {
+                throw new DuplicateUsernameException("john");
+            }
+            return user;
+        });
+
+        BulkImportReport report = this.importCsv("""
+                username,password
+                alice,p1
+                john,p2
+                bob,p3
+                """, 10);
+
+        verify(this.userService, times(3)).save(any(User.class));
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(3);
+            assertThat(error.username()).isEqualTo("john");
+            assertThat(error.message()).contains("john");
+        });
+    }
+
+    @Test
+    void testInvalidRowsAreReportedWithoutSaving() throws IOException {
+        BulkImportReport report = this.importCsv("""
+                username,password
+                alice,
+                """, 10);
+
+        verify(this.userService, never()).saveAll(anyList());
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(BulkImportReport.RowError::message)
+                .containsExactly("username and password are required");
+    }
+
+    @Test
+    void testAsyncImportCompletesJobAndDeletesFile() throws IOException {
+        Path file = Files.writeString(this.directory.resolve("users.ndjson"), """
+                {"username":"alice","password":"p1"}
+                {"username":"bob","password":"p2"}
+                """);
+        BulkImportReport job = this.service.createJob();
+
+        // Called directly, so it runs on this thread.
+        this.service.importFileAsync(job, file, StandardCharsets.UTF_8, BulkImportFormat.NDJSON, 500);
+
+        assertThat(this.service.findJob(job.getId())).containsSame(job);
+        assertThat(job.getStatus()).isEqualTo(BulkImportReport.Status.COMPLETED);
+        assertThat(job.getCreated()).isEqualTo(2);
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void testAsyncImportFailureMarksJobFailed() throws IOException {
+        Path file = Files.writeString(this.directory.resolve("users.csv"), "username,password\nalice,p1\n");
+        given(this.userService.saveAll(anyList())).willThrow(new IllegalStateException("database down"));
+        given(this.userService.save(any(User.class))).willThrow(new IllegalStateException("database down"));
+        BulkImportReport job = this.service.createJob();
+
+        this.service.importFileAsync(job, file, StandardCharsets.UTF_8, BulkImportFormat.CSV, 500);
+
+        // Row failures are reported per row; the job itself still completes.
+        assertThat(job.getStatus()).isEqualTo(BulkImportReport.Status.COMPLETED);
+        assertThat(job.getFailed()).isEqualTo(1);
+
+        this.service.importFileAsync(job, this.directory.resolve("missing.csv"), StandardCharsets.UTF_8,
+                BulkImportFormat.CSV, 500);
+
+        assertThat(job.getStatus()).isEqualTo(BulkImportReport.Status.FAILED);
+        assertThat(job.getMessage()).contains("missing.csv");
+    }
+
+    @Test
+    void testFinishedJobsExpire() throws IOException {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        BulkImportReport finished = this.service.createJob();
+        BulkImportReport running = this.service.createJob();
+        Path file = Files.writeString(this.directory.resolve("users.csv"), "username,password\n");
+        this.service.importFileAsync(finished, file, StandardCharsets.UTF_8, BulkImportFormat.CSV, 500);
+
+        given(this.clock.instant()).willReturn(start.plus(Duration.ofMinutes(59)));
+        this.service.createJob();
+        assertThat(this.service.findJob(finished.getId())).isPresent();
+
+        given(this.clock.instant()).willReturn(start.plus(Duration.ofMinutes(61)));
+        this.service.createJob();
+        assertThat(this.service.findJob(finished.getId())).isEmpty();
+        assertThat(this.service.findJob(running.getId())).isPresent();
+    }
+
+    private BulkImportReport importCsv(String csv, int batchSize) throws IOException {
+        return this.service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, BulkImportFormat.CSV, batchSize);
+    }
+
+}
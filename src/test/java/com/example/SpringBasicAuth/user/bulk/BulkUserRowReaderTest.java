@@ -0,0 +1,62 @@
+package com.example.SpringBasicAuth.user.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BulkUserRowReaderTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    BulkUserRowReader reader(String input, BulkImportFormat format) throws IOException {
+        return new BulkUserRowReader(new BufferedReader(new StringReader(input)), format, this.objectMapper);
+    }
+
+    @Test
+    void testReadCsv() throws IOException {
+        BulkUserRowReader rows = reader("""
+                roles,username,password,enabled
+                admin user,john,123456,true
+                user,"eric ""the red\""",654321,false
+
+                user,tom,,
+                """, BulkImportFormat.CSV);
+
+        BulkUserRow john = rows.next();
+        assertThat(john.username()).isEqualTo("john");
+        assertThat(john.roles()).isEqualTo("admin user");
+        assertThat(john.enabled()).isTrue();
+
+        BulkUserRow eric = rows.next();
+        assertThat(eric.username()).isEqualTo("eric \"the red\"");
+        assertThat(eric.enabled()).isFalse();
+
+        BulkUserRow tom = rows.next();
+        assertThat(tom.line()).isEqualTo(5);
+        assertThat(tom.error()).isEqualTo("username and password are required");
+
+        assertThat(rows.next()).isNull();
+    }
+
+    @Test
+    void testReadNdjson() throws IOException {
+        BulkUserRowReader rows = reader("""
+                {"username":"john","password":"123456","roles":"admin user"}
+                {"username":
+                """, BulkImportFormat.NDJSON);
+
+        BulkUserRow john = rows.next();
+        assertThat(john.username()).isEqualTo("john");
+        assertThat(john.enabled()).isTrue();
+
+        assertThat(rows.next().error()).startsWith("Invalid JSON");
+        assertThat(rows.next()).isNull();
+    }
+
+}